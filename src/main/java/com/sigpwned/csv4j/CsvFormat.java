@@ -49,6 +49,9 @@ public class CsvFormat {
   }
 
   /**
+   * Inside a quoted field, the escape character before a quote character or another escape
+   * character stands for that character. Anywhere else, it is an ordinary character.
+   * 
    * @return the escapeChar
    */
   public char getEscapeChar() {
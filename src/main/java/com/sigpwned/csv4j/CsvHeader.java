@@ -0,0 +1,105 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The column names of a CSV file, typically taken from its first record. Each name is mapped to
+ * its column index once, when the header is created, so looking up a column by name is a single
+ * hash lookup. If a name appears more than once, then it refers to its first column. Headers are
+ * immutable, and are shared by all the {@link NamedCsvRecord records} read under them.
+ */
+public final class CsvHeader {
+  public static CsvHeader of(String... names) {
+    return new CsvHeader(asList(names));
+  }
+
+  public static CsvHeader of(CsvRecord record) {
+    List<String> names = new ArrayList<>(record.size());
+    for (CsvField field : record.getFields())
+      names.add(field.getText());
+    return new CsvHeader(names);
+  }
+
+  private final List<String> names;
+  private final Map<String, Integer> indexes;
+
+  public CsvHeader(List<String> names) {
+    this.names = unmodifiableList(new ArrayList<>(names));
+    this.indexes = new HashMap<>(names.size() * 2);
+    for (int i = 0; i < this.names.size(); i++)
+      this.indexes.putIfAbsent(this.names.get(i), i);
+  }
+
+  /**
+   * @return the column names, in order
+   */
+  public List<String> getNames() {
+    return names;
+  }
+
+  public String getName(int index) {
+    return getNames().get(index);
+  }
+
+  /**
+   * @return the index of the first column with the given name, or -1 if there is none
+   */
+  public int indexOf(String name) {
+    Integer result = indexes.get(name);
+    return result != null ? result.intValue() : -1;
+  }
+
+  public boolean contains(String name) {
+    return indexes.containsKey(name);
+  }
+
+  public int size() {
+    return getNames().size();
+  }
+
+  @Override
+  public int hashCode() {
+    return names.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (obj == null)
+      return false;
+    if (getClass() != obj.getClass())
+      return false;
+    CsvHeader other = (CsvHeader) obj;
+    return names.equals(other.names);
+  }
+
+  @Override
+  public String toString() {
+    return "CsvHeader [names=" + names + "]";
+  }
+}
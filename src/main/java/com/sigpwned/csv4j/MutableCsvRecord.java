@@ -0,0 +1,263 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import com.sigpwned.csv4j.util.CsvNumbers;
+
+/**
+ * One row of a CSV file that can be refilled in place. The text of all fields is held back to back
+ * in one reusable buffer and exposed as {@link CharSequence} views, so once the buffers have grown
+ * to fit the widest row, refilling this record allocates nothing. The views returned by
+ * {@link #getText(int)} reflect the current contents of this record, so callers that need to keep a
+ * field's text after the record is refilled must copy it, e.g., with {@link Object#toString()}.
+ */
+public class MutableCsvRecord {
+  private char[] text;
+  private int length;
+  private int[] starts;
+  private int[] ends;
+  private boolean[] quoted;
+  private FieldText[] views;
+  private int size;
+
+  public MutableCsvRecord() {
+    this.text = new char[256];
+    this.starts = new int[16];
+    this.ends = new int[16];
+    this.quoted = new boolean[16];
+    this.views = new FieldText[16];
+  }
+
+  /**
+   * Removes all fields from this record.
+   */
+  public void clear() {
+    length = 0;
+    size = 0;
+  }
+
+  /**
+   * Replaces the contents of this record with the given number of empty, unquoted fields, which can
+   * then be replaced in any order with {@link #setField(int, boolean, char[], int, int)}.
+   */
+  public void reset(int size) {
+    clear();
+    for (int i = 0; i < size; i++)
+      quoted[reserve(0)] = false;
+  }
+
+  /**
+   * Replaces the text of the given field. The replaced text still takes up room in this record's
+   * buffer until the record is cleared, so each field should be set at most once per refill.
+   */
+  public void setField(int index, boolean quoted, char[] buf, int off, int len) {
+    checkIndex(index);
+    ensureText(len);
+    System.arraycopy(buf, off, text, length, len);
+    starts[index] = length;
+    ends[index] = length + len;
+    length = length + len;
+    this.quoted[index] = quoted;
+  }
+
+  /**
+   * Replaces the contents of this record with a copy of the given record.
+   */
+  public void set(CsvRecord record) {
+    clear();
+    for (CsvField field : record.getFields())
+      addField(field.isQuoted(), field.getText());
+  }
+
+  /**
+   * Appends a field with the given text to this record.
+   */
+  public void addField(boolean quoted, char[] buf, int off, int len) {
+    int index = reserve(len);
+    System.arraycopy(buf, off, text, starts[index], len);
+    this.quoted[index] = quoted;
+  }
+
+  /**
+   * Appends a field with the given text to this record.
+   */
+  public void addField(boolean quoted, CharSequence s) {
+    int len = s.length();
+    int index = reserve(len);
+    int start = starts[index];
+    if (s instanceof String) {
+      ((String) s).getChars(0, len, text, start);
+    } else {
+      for (int i = 0; i < len; i++)
+        text[start + i] = s.charAt(i);
+    }
+    this.quoted[index] = quoted;
+  }
+
+  /**
+   * Makes room for a new field with text of the given length.
+   * 
+   * @return the index of the new field
+   */
+  private int reserve(int len) {
+    if (size == starts.length) {
+      int capacity = starts.length * 2;
+      starts = Arrays.copyOf(starts, capacity);
+      ends = Arrays.copyOf(ends, capacity);
+      quoted = Arrays.copyOf(quoted, capacity);
+      views = Arrays.copyOf(views, capacity);
+    }
+    ensureText(len);
+
+    int index = size;
+    starts[index] = length;
+    ends[index] = length + len;
+    length = length + len;
+    size = size + 1;
+
+    return index;
+  }
+
+  /**
+   * Makes room for text of the given length at the end of the buffer.
+   */
+  private void ensureText(int len) {
+    if (length + len > text.length)
+      text = Arrays.copyOf(text, Math.max(text.length * 2, length + len));
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @return a view of the text of the given field. The view is reused across refills.
+   */
+  public CharSequence getText(int index) {
+    checkIndex(index);
+    FieldText result = views[index];
+    if (result == null)
+      result = views[index] = new FieldText(index);
+    return result;
+  }
+
+  public boolean isQuoted(int index) {
+    checkIndex(index);
+    return quoted[index];
+  }
+
+  /**
+   * @return the text of the given field parsed as an {@code int}, without creating a string
+   * @throws NumberFormatException if the text is not an {@code int}
+   */
+  public int getInt(int index) {
+    checkIndex(index);
+    return CsvNumbers.parseInt(text, starts[index], ends[index] - starts[index]);
+  }
+
+  /**
+   * @return the text of the given field parsed as a {@code long}, without creating a string
+   * @throws NumberFormatException if the text is not a {@code long}
+   */
+  public long getLong(int index) {
+    checkIndex(index);
+    return CsvNumbers.parseLong(text, starts[index], ends[index] - starts[index]);
+  }
+
+  /**
+   * @return the text of the given field parsed as a {@code double}, usually without creating a
+   *         string
+   * @throws NumberFormatException if the text is not a {@code double}
+   * @see CsvNumbers#parseDouble(char[], int, int)
+   */
+  public double getDouble(int index) {
+    checkIndex(index);
+    return CsvNumbers.parseDouble(text, starts[index], ends[index] - starts[index]);
+  }
+
+  /**
+   * @return a new, independent copy of the given field
+   */
+  public CsvField getField(int index) {
+    checkIndex(index);
+    int start = starts[index];
+    return new CsvField(quoted[index], new String(text, start, ends[index] - start));
+  }
+
+  /**
+   * @return a new, independent copy of this record
+   */
+  public CsvRecord toRecord() {
+    List<CsvField> fields = new ArrayList<>(size);
+    for (int i = 0; i < size; i++)
+      fields.add(getField(i));
+    return CsvRecord.of(fields);
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size)
+      throw new IndexOutOfBoundsException(Integer.toString(index));
+  }
+
+  @Override
+  public String toString() {
+    return "MutableCsvRecord [fields=" + toRecord().getFields() + "]";
+  }
+
+  /**
+   * A view of the text of one field of the enclosing record
+   */
+  private class FieldText implements CharSequence {
+    private final int index;
+
+    public FieldText(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public int length() {
+      return ends[index] - starts[index];
+    }
+
+    @Override
+    public char charAt(int i) {
+      if (i < 0 || i >= length())
+        throw new IndexOutOfBoundsException(Integer.toString(i));
+      return text[starts[index] + i];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+      return new String(text, starts[index], length());
+    }
+  }
+}
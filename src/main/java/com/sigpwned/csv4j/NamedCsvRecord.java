@@ -0,0 +1,83 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j;
+
+import static java.util.Objects.requireNonNull;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One row of a CSV file whose columns can be looked up by name using the {@link CsvHeader} it was
+ * read under. The header is shared, not copied, so looking up a field by name costs one hash lookup
+ * and one list access.
+ */
+public class NamedCsvRecord extends CsvRecord {
+  private final CsvHeader header;
+
+  public NamedCsvRecord(CsvHeader header, List<CsvField> fields) {
+    super(fields);
+    this.header = requireNonNull(header);
+  }
+
+  /**
+   * @return the header
+   */
+  public CsvHeader getHeader() {
+    return header;
+  }
+
+  /**
+   * @return the field in the column with the given name, or {@code null} if the header has no such
+   *         column or this record is too short to have it
+   */
+  public CsvField getField(String name) {
+    int index = getHeader().indexOf(name);
+    if (index == -1 || index >= size())
+      return null;
+    return getFields().get(index);
+  }
+
+  /**
+   * @return the text of the field in the column with the given name, or {@code null} if the header
+   *         has no such column or this record is too short to have it
+   */
+  public String get(String name) {
+    CsvField field = getField(name);
+    return field != null ? field.getText() : null;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * super.hashCode() + header.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!super.equals(obj))
+      return false;
+    NamedCsvRecord other = (NamedCsvRecord) obj;
+    return Objects.equals(header, other.header);
+  }
+
+  @Override
+  public String toString() {
+    return "NamedCsvRecord [header=" + header + ", fields=" + getFields() + "]";
+  }
+}
@@ -0,0 +1,186 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.columnar;
+
+import static java.util.Objects.requireNonNull;
+import java.util.Arrays;
+
+/**
+ * A fixed number of records held column by column, with one primitive array per column according
+ * to the column's {@link CsvColumnType type}. Each column also has a null bitmap, in which bit
+ * {@code row % 64} of word {@code row / 64} is set if the column's value in that row is null, i.e.,
+ * empty and unquoted. Null values in primitive columns are zero.
+ * 
+ * Batches are meant to be filled repeatedly by
+ * {@link CsvColumnBatchReader#readBatch(CsvColumnBatch)} so that the arrays are allocated once.
+ * The arrays returned by this object's getters are its internal arrays, and only their first
+ * {@link #size()} elements are valid.
+ */
+public final class CsvColumnBatch {
+  private final CsvSchema schema;
+  private final int capacity;
+  private final Object[] values;
+  private final long[][] nulls;
+  private int size;
+
+  public CsvColumnBatch(CsvSchema schema, int capacity) {
+    if (capacity < 1)
+      throw new IllegalArgumentException("capacity must be positive");
+    this.schema = requireNonNull(schema);
+    this.capacity = capacity;
+    this.values = new Object[schema.size()];
+    this.nulls = new long[schema.size()][(capacity + 63) / 64];
+    for (int i = 0; i < schema.size(); i++) {
+      switch (schema.getColumn(i).getType()) {
+        case BOOLEAN:
+          values[i] = new boolean[capacity];
+          break;
+        case INT:
+        case DATE:
+          values[i] = new int[capacity];
+          break;
+        case LONG:
+        case TIMESTAMP:
+          values[i] = new long[capacity];
+          break;
+        case DOUBLE:
+          values[i] = new double[capacity];
+          break;
+        case STRING:
+          values[i] = new String[capacity];
+          break;
+        default:
+          throw new AssertionError(schema.getColumn(i).getType());
+      }
+    }
+  }
+
+  /**
+   * @return the schema
+   */
+  public CsvSchema getSchema() {
+    return schema;
+  }
+
+  /**
+   * @return the maximum number of records this batch can hold
+   */
+  public int capacity() {
+    return capacity;
+  }
+
+  /**
+   * @return the number of records this batch holds
+   */
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Removes all records from this batch.
+   */
+  public void clear() {
+    for (int i = 0; i < values.length; i++) {
+      Arrays.fill(nulls[i], 0L);
+      if (values[i] instanceof String[])
+        Arrays.fill((String[]) values[i], 0, size, null);
+    }
+    size = 0;
+  }
+
+  public boolean[] getBooleans(int column) {
+    return (boolean[]) values(column, CsvColumnType.BOOLEAN);
+  }
+
+  public int[] getInts(int column) {
+    return (int[]) values(column, CsvColumnType.INT);
+  }
+
+  public long[] getLongs(int column) {
+    return (long[]) values(column, CsvColumnType.LONG);
+  }
+
+  public double[] getDoubles(int column) {
+    return (double[]) values(column, CsvColumnType.DOUBLE);
+  }
+
+  /**
+   * @return the values of the given {@link CsvColumnType#DATE} column, as days since 1970-01-01
+   */
+  public int[] getDates(int column) {
+    return (int[]) values(column, CsvColumnType.DATE);
+  }
+
+  /**
+   * @return the values of the given {@link CsvColumnType#TIMESTAMP} column, as microseconds since
+   *         1970-01-01T00:00:00
+   */
+  public long[] getTimestamps(int column) {
+    return (long[]) values(column, CsvColumnType.TIMESTAMP);
+  }
+
+  public String[] getStrings(int column) {
+    return (String[]) values(column, CsvColumnType.STRING);
+  }
+
+  /**
+   * @return the null bitmap of the given column
+   */
+  public long[] getNulls(int column) {
+    return nulls[column];
+  }
+
+  public boolean isNull(int column, int row) {
+    if (row >= size)
+      throw new IndexOutOfBoundsException(Integer.toString(row));
+    return (nulls[column][row >>> 6] & (1L << row)) != 0L;
+  }
+
+  /**
+   * Adds a record to this batch, whose values the caller then sets directly in the arrays.
+   * 
+   * @return the row of the new record
+   */
+  /* default */ int addRow() {
+    if (size == capacity)
+      throw new IllegalStateException("batch is full");
+    int result = size;
+    size = size + 1;
+    return result;
+  }
+
+  /* default */ Object values(int column) {
+    return values[column];
+  }
+
+  /* default */ void setNull(int column, int row) {
+    nulls[column][row >>> 6] |= 1L << row;
+  }
+
+  private Object values(int column, CsvColumnType type) {
+    if (schema.getColumn(column).getType() != type)
+      throw new IllegalArgumentException("column " + column + " is not " + type);
+    return values[column];
+  }
+}
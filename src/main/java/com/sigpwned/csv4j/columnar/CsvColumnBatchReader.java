@@ -0,0 +1,249 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.columnar;
+
+import static java.util.Objects.requireNonNull;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import com.sigpwned.csv4j.CsvFormat;
+import com.sigpwned.csv4j.CsvHeader;
+import com.sigpwned.csv4j.read.CsvHandler;
+import com.sigpwned.csv4j.read.CsvParser;
+import com.sigpwned.csv4j.read.LineCountingCharStream;
+import com.sigpwned.csv4j.read.MissingColumnException;
+import com.sigpwned.csv4j.util.CsvNumbers;
+
+/**
+ * Reads records from a character stream in CSV format into {@link CsvColumnBatch column batches}.
+ * The first record is the header, which is matched to the schema by name. Columns not in the
+ * schema are skipped. Values are converted directly from the parser's buffer into the batch's
+ * arrays, so no record, field, or string objects are created except for {@link CsvColumnType#STRING
+ * string} values. This object is not thread-safe.
+ */
+public class CsvColumnBatchReader implements AutoCloseable {
+  private final CsvParser parser;
+  private final LineCountingCharStream in;
+  private final CsvSchema schema;
+  private final CsvColumnType[] types;
+
+  /**
+   * The header, or {@code null} if it has not been read yet
+   */
+  private CsvHeader header;
+
+  /**
+   * Maps each column index in the input to its index in the schema, or -1 if the column is not in
+   * the schema. Columns past the end of this array are not in the schema.
+   */
+  private int[] slots;
+
+  /**
+   * Maps each schema column to its column index in the input
+   */
+  private int[] columns;
+
+  public CsvColumnBatchReader(CsvFormat format, Reader in, CsvSchema schema) {
+    this(new CsvParser(format), in, schema);
+  }
+
+  public CsvColumnBatchReader(CsvParser parser, Reader in, CsvSchema schema) {
+    this.parser = requireNonNull(parser);
+    this.in = new LineCountingCharStream(requireNonNull(in));
+    this.schema = requireNonNull(schema);
+    this.types = new CsvColumnType[schema.size()];
+    for (int i = 0; i < types.length; i++)
+      types[i] = schema.getColumn(i).getType();
+  }
+
+  /**
+   * Replaces the contents of the given batch with up to its capacity of the next records. The
+   * header is read first if it has not been read yet.
+   * 
+   * @return the number of records read, which is zero if and only if there are no more records
+   * @throws IllegalArgumentException if the batch does not have this reader's schema
+   * @throws MissingColumnException if the header has no column for some column of the schema
+   * @throws InvalidValueException if a value cannot be parsed as its column's type
+   */
+  public int readBatch(CsvColumnBatch batch) throws IOException {
+    if (!batch.getSchema().equals(schema))
+      throw new IllegalArgumentException("batch schema does not match");
+
+    batch.clear();
+
+    if (header == null && readHeader() == null)
+      return 0;
+
+    Handler handler = new Handler(batch);
+    while (batch.size() < batch.capacity() && in.peek() != -1)
+      parser.parseRecord(in, handler);
+
+    return batch.size();
+  }
+
+  /**
+   * Reads the header, if it has not been read yet, and matches it to the schema.
+   * 
+   * @return the header, or {@code null} if the input is empty
+   * @throws MissingColumnException if the header has no column for some column of the schema
+   */
+  public CsvHeader readHeader() throws IOException {
+    if (header != null || in.peek() == -1)
+      return header;
+
+    CsvHeader h = CsvHeader.of(parser.parseRecord(in));
+
+    int[] cs = new int[schema.size()];
+    int width = 0;
+    for (int i = 0; i < cs.length; i++) {
+      cs[i] = h.indexOf(schema.getColumn(i).getName());
+      if (cs[i] == -1)
+        throw new MissingColumnException(schema.getColumn(i).getName());
+      width = Math.max(width, cs[i] + 1);
+    }
+
+    int[] ss = new int[width];
+    Arrays.fill(ss, -1);
+    for (int i = 0; i < cs.length; i++)
+      ss[cs[i]] = i;
+
+    this.columns = cs;
+    this.slots = ss;
+    this.header = h;
+
+    return h;
+  }
+
+  /**
+   * @return the schema
+   */
+  public CsvSchema getSchema() {
+    return schema;
+  }
+
+  public CsvFormat getFormat() {
+    return parser.getFormat();
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  /**
+   * Converts the fields of each record into the next row of a batch
+   */
+  private final class Handler implements CsvHandler {
+    private final CsvColumnBatch batch;
+    private int linenum;
+    private int row;
+    private int column;
+
+    public Handler(CsvColumnBatch batch) {
+      this.batch = batch;
+    }
+
+    @Override
+    public void startRecord(int linenum) {
+      this.linenum = linenum;
+      this.row = batch.addRow();
+      this.column = 0;
+    }
+
+    @Override
+    public void field(char[] buf, int off, int len, boolean quoted) throws IOException {
+      int slot = column < slots.length ? slots[column] : -1;
+      column = column + 1;
+      if (slot == -1)
+        return;
+
+      if (len == 0 && !quoted) {
+        setNull(slot);
+        return;
+      }
+
+      Object values = batch.values(slot);
+      try {
+        switch (types[slot]) {
+          case BOOLEAN:
+            ((boolean[]) values)[row] = Values.parseBoolean(buf, off, len);
+            break;
+          case INT:
+            ((int[]) values)[row] = CsvNumbers.parseInt(buf, off, len);
+            break;
+          case LONG:
+            ((long[]) values)[row] = CsvNumbers.parseLong(buf, off, len);
+            break;
+          case DOUBLE:
+            ((double[]) values)[row] = CsvNumbers.parseDouble(buf, off, len);
+            break;
+          case DATE:
+            ((int[]) values)[row] = Values.parseDate(buf, off, len);
+            break;
+          case TIMESTAMP:
+            ((long[]) values)[row] = Values.parseTimestamp(buf, off, len);
+            break;
+          case STRING:
+            ((String[]) values)[row] = new String(buf, off, len);
+            break;
+          default:
+            throw new AssertionError(types[slot]);
+        }
+      } catch (NumberFormatException e) {
+        throw new InvalidValueException(linenum, schema.getColumn(slot).getName(), types[slot],
+            new String(buf, off, len));
+      }
+    }
+
+    @Override
+    public void endRecord() {
+      // This record was too short to contain some of the schema's columns.
+      for (int slot = 0; slot < columns.length; slot++)
+        if (columns[slot] >= column)
+          setNull(slot);
+    }
+
+    private void setNull(int slot) {
+      batch.setNull(slot, row);
+      Object values = batch.values(slot);
+      switch (types[slot]) {
+        case BOOLEAN:
+          ((boolean[]) values)[row] = false;
+          break;
+        case INT:
+        case DATE:
+          ((int[]) values)[row] = 0;
+          break;
+        case LONG:
+        case TIMESTAMP:
+          ((long[]) values)[row] = 0L;
+          break;
+        case DOUBLE:
+          ((double[]) values)[row] = 0.0;
+          break;
+        case STRING:
+          ((String[]) values)[row] = null;
+          break;
+        default:
+          throw new AssertionError(types[slot]);
+      }
+    }
+  }
+}
@@ -0,0 +1,492 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.columnar;
+
+import static java.util.Objects.requireNonNull;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds the records of a CSV file column by column outside the Java heap, so that files much
+ * larger than the heap can be loaded once, given a directory to map them into, and queried
+ * repeatedly without creating an object per record or field, and without adding to garbage
+ * collection work. Columns are appended from {@link CsvColumnBatch batches}, e.g., by
+ * {@link #appendAll(CsvColumnBatchReader)}, and afterwards any value can be read by column and
+ * row.
+ * 
+ * Each column is stored in segments of either direct buffers or, if a directory is given,
+ * memory-mapped temporary files that the operating system can page out as needed. Direct buffers
+ * are limited by {@code -XX:MaxDirectMemorySize}, which defaults to the maximum heap size, so only
+ * a store with a directory can hold more data than the heap. A column's first segment starts small
+ * and doubles as needed up to the segment size, so small files use little memory. Numeric,
+ * boolean, date, and timestamp values are stored at a fixed width of 1, 4, or 8 bytes. String
+ * values are stored as UTF-8 bytes back to back, along with the end offset of each value. Each
+ * column also has a null bitmap with one bit per row.
+ * 
+ * The temporary files are deleted when this store is closed, or earlier on platforms that allow
+ * open files to be deleted, e.g., Linux. The memory itself is released when the garbage collector
+ * collects the buffers, since Java 8 offers no way to release it explicitly. This object is not
+ * thread-safe.
+ */
+public final class CsvColumnStore implements AutoCloseable {
+  public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+  public static final int DEFAULT_BATCH_SIZE = 4096;
+
+  /**
+   * The initial size of each column's first segment, unless the segment size is smaller
+   */
+  private static final int INITIAL_SEGMENT_SIZE = 4096;
+
+  private final CsvSchema schema;
+  private final Path directory;
+  private final int segmentSize;
+
+  /**
+   * The fixed-width values of each column, or the end offsets of each string value
+   */
+  private final Region[] values;
+
+  /**
+   * The UTF-8 bytes of each string column, or {@code null} for other columns
+   */
+  private final Region[] bytes;
+
+  /**
+   * The null bitmap of each column
+   */
+  private final Region[] nulls;
+
+  private long size;
+  private boolean closed;
+
+  /**
+   * Creates a store that holds its columns in direct buffers. Direct memory is limited to the
+   * maximum heap size by default, so use {@link #CsvColumnStore(CsvSchema, Path)} for files larger
+   * than the heap.
+   */
+  public CsvColumnStore(CsvSchema schema) throws IOException {
+    this(schema, null, DEFAULT_SEGMENT_SIZE);
+  }
+
+  /**
+   * Creates a store that holds its columns in memory-mapped temporary files in the given
+   * directory.
+   */
+  public CsvColumnStore(CsvSchema schema, Path directory) throws IOException {
+    this(schema, requireNonNull(directory), DEFAULT_SEGMENT_SIZE);
+  }
+
+  /**
+   * @param directory the directory to create temporary files in, or {@code null} to use direct
+   *        buffers
+   * @param segmentSize the size of each segment, which must be a positive multiple of 8
+   */
+  public CsvColumnStore(CsvSchema schema, Path directory, int segmentSize) throws IOException {
+    if (segmentSize <= 0 || segmentSize % 8 != 0)
+      throw new IllegalArgumentException("segmentSize must be a positive multiple of 8");
+    this.schema = requireNonNull(schema);
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.values = new Region[schema.size()];
+    this.bytes = new Region[schema.size()];
+    this.nulls = new Region[schema.size()];
+    try {
+      for (int i = 0; i < schema.size(); i++) {
+        CsvColumnType type = schema.getColumn(i).getType();
+        values[i] = region();
+        nulls[i] = region();
+        if (type == CsvColumnType.STRING)
+          bytes[i] = region();
+      }
+    } catch (IOException e) {
+      close();
+      throw e;
+    }
+  }
+
+  /**
+   * Reads all the remaining records from the given reader into this store.
+   * 
+   * @return the number of records read
+   * @throws IllegalArgumentException if the reader's schema is not this store's schema
+   */
+  public long appendAll(CsvColumnBatchReader reader) throws IOException {
+    if (!reader.getSchema().equals(schema))
+      throw new IllegalArgumentException("reader schema does not match");
+    CsvColumnBatch batch = new CsvColumnBatch(schema, DEFAULT_BATCH_SIZE);
+    long result = 0L;
+    for (int n = reader.readBatch(batch); n != 0; n = reader.readBatch(batch)) {
+      append(batch);
+      result = result + n;
+    }
+    return result;
+  }
+
+  /**
+   * Appends the records of the given batch to this store.
+   * 
+   * @throws IllegalArgumentException if the batch's schema is not this store's schema
+   */
+  public void append(CsvColumnBatch batch) throws IOException {
+    if (closed)
+      throw new IllegalStateException("closed");
+    if (!batch.getSchema().equals(schema))
+      throw new IllegalArgumentException("batch schema does not match");
+
+    final int n = batch.size();
+    for (int c = 0; c < schema.size(); c++) {
+      final Region vs = values[c];
+      final long[] ns = batch.getNulls(c);
+      final long base = size;
+      switch (schema.getColumn(c).getType()) {
+        case BOOLEAN: {
+          boolean[] xs = batch.getBooleans(c);
+          for (int r = 0; r < n; r++)
+            vs.put(base + r, (byte) (xs[r] ? 1 : 0));
+          break;
+        }
+        case INT:
+        case DATE: {
+          int[] xs = (int[]) batch.values(c);
+          for (int r = 0; r < n; r++)
+            vs.putInt(4L * (base + r), xs[r]);
+          break;
+        }
+        case LONG:
+        case TIMESTAMP: {
+          long[] xs = (long[]) batch.values(c);
+          for (int r = 0; r < n; r++)
+            vs.putLong(8L * (base + r), xs[r]);
+          break;
+        }
+        case DOUBLE: {
+          double[] xs = batch.getDoubles(c);
+          for (int r = 0; r < n; r++)
+            vs.putLong(8L * (base + r), Double.doubleToRawLongBits(xs[r]));
+          break;
+        }
+        case STRING: {
+          String[] xs = batch.getStrings(c);
+          Region bs = bytes[c];
+          long end = base == 0L ? 0L : vs.getLong(8L * (base - 1L));
+          for (int r = 0; r < n; r++) {
+            if (xs[r] != null) {
+              byte[] b = xs[r].getBytes(StandardCharsets.UTF_8);
+              bs.put(end, b);
+              end = end + b.length;
+            }
+            vs.putLong(8L * (base + r), end);
+          }
+          break;
+        }
+        default:
+          throw new AssertionError(schema.getColumn(c).getType());
+      }
+
+      final Region nb = nulls[c];
+      for (int r = 0; r < n; r++) {
+        if ((ns[r >>> 6] & (1L << r)) != 0L) {
+          long row = base + r;
+          nb.setBit(row);
+        }
+      }
+    }
+
+    size = size + n;
+  }
+
+  /**
+   * @return the number of records in this store
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * @return the schema
+   */
+  public CsvSchema getSchema() {
+    return schema;
+  }
+
+  public boolean isNull(int column, long row) {
+    checkRow(row);
+    return nulls[column].getBit(row);
+  }
+
+  public boolean getBoolean(int column, long row) {
+    check(column, row, CsvColumnType.BOOLEAN);
+    return values[column].get(row) != 0;
+  }
+
+  public int getInt(int column, long row) {
+    check(column, row, CsvColumnType.INT);
+    return values[column].getInt(4L * row);
+  }
+
+  public long getLong(int column, long row) {
+    check(column, row, CsvColumnType.LONG);
+    return values[column].getLong(8L * row);
+  }
+
+  public double getDouble(int column, long row) {
+    check(column, row, CsvColumnType.DOUBLE);
+    return Double.longBitsToDouble(values[column].getLong(8L * row));
+  }
+
+  /**
+   * @return the value of the given {@link CsvColumnType#DATE} column, as days since 1970-01-01
+   */
+  public int getDate(int column, long row) {
+    check(column, row, CsvColumnType.DATE);
+    return values[column].getInt(4L * row);
+  }
+
+  /**
+   * @return the value of the given {@link CsvColumnType#TIMESTAMP} column, as microseconds since
+   *         1970-01-01T00:00:00
+   */
+  public long getTimestamp(int column, long row) {
+    check(column, row, CsvColumnType.TIMESTAMP);
+    return values[column].getLong(8L * row);
+  }
+
+  /**
+   * @return the value of the given string column, or {@code null} if it is null
+   */
+  public String getString(int column, long row) {
+    check(column, row, CsvColumnType.STRING);
+    if (isNull(column, row))
+      return null;
+    long start = row == 0L ? 0L : values[column].getLong(8L * (row - 1L));
+    long end = values[column].getLong(8L * row);
+    byte[] b = new byte[Math.toIntExact(end - start)];
+    bytes[column].get(start, b);
+    return new String(b, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Deletes this store's temporary files, if any. Values cannot be appended afterwards.
+   */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    IOException problem = null;
+    for (Region[] regions : new Region[][] {values, bytes, nulls}) {
+      for (Region region : regions) {
+        if (region == null)
+          continue;
+        try {
+          region.close();
+        } catch (IOException e) {
+          if (problem == null)
+            problem = e;
+          else
+            problem.addSuppressed(e);
+        }
+      }
+    }
+    if (problem != null)
+      throw problem;
+  }
+
+  private void check(int column, long row, CsvColumnType type) {
+    if (schema.getColumn(column).getType() != type)
+      throw new IllegalArgumentException("column " + column + " is not " + type);
+    checkRow(row);
+  }
+
+  private void checkRow(long row) {
+    if (row < 0L || row >= size)
+      throw new IndexOutOfBoundsException(Long.toString(row));
+  }
+
+  private Region region() throws IOException {
+    if (directory == null)
+      return new Region(null, segmentSize);
+    Path file = Files.createTempFile(directory, "csv4j-", ".col");
+    return new Region(FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+        StandardOpenOption.DELETE_ON_CLOSE), segmentSize);
+  }
+
+  /**
+   * A growable run of bytes held in segments, addressed by a long offset. The first segment grows
+   * by doubling until it reaches the segment size, and then full-size segments are added. Since
+   * every segment size is a multiple of 8, fixed-width values never straddle segments.
+   */
+  private static final class Region {
+    private final FileChannel channel;
+    private final int segmentSize;
+    private final List<ByteBuffer> segments;
+
+    public Region(FileChannel channel, int segmentSize) {
+      this.channel = channel;
+      this.segmentSize = segmentSize;
+      this.segments = new ArrayList<>();
+    }
+
+    public byte get(long address) {
+      return segment(address).get(offset(address));
+    }
+
+    public void put(long address, byte value) throws IOException {
+      allocate(address).put(offset(address), value);
+    }
+
+    public int getInt(long address) {
+      return segment(address).getInt(offset(address));
+    }
+
+    public void putInt(long address, int value) throws IOException {
+      allocate(address).putInt(offset(address), value);
+    }
+
+    public long getLong(long address) {
+      return segment(address).getLong(offset(address));
+    }
+
+    public void putLong(long address, long value) throws IOException {
+      allocate(address).putLong(offset(address), value);
+    }
+
+    /**
+     * @return the given bit, counting from the least significant bit of the first byte. Bits in
+     *         segments that have not been allocated are clear.
+     */
+    public boolean getBit(long bit) {
+      long address = bit >>> 3;
+      int index = Math.toIntExact(address / segmentSize);
+      if (index >= segments.size() || offset(address) >= segments.get(index).capacity())
+        return false;
+      return (get(bit >>> 3) & (1 << (bit & 7))) != 0;
+    }
+
+    /**
+     * Sets the given bit, counting from the least significant bit of the first byte.
+     */
+    public void setBit(long bit) throws IOException {
+      ByteBuffer segment = allocate(bit >>> 3);
+      int offset = offset(bit >>> 3);
+      segment.put(offset, (byte) (segment.get(offset) | (1 << (bit & 7))));
+    }
+
+    public void get(long address, byte[] dst) {
+      for (int i = 0; i < dst.length;) {
+        ByteBuffer segment = segment(address + i);
+        int offset = offset(address + i);
+        int n = Math.min(dst.length - i, segment.capacity() - offset);
+        ByteBuffer view = segment.duplicate();
+        ((Buffer) view).position(offset);
+        view.get(dst, i, n);
+        i = i + n;
+      }
+    }
+
+    public void put(long address, byte[] src) throws IOException {
+      for (int i = 0; i < src.length;) {
+        ByteBuffer segment = allocate(address + i);
+        int offset = offset(address + i);
+        int n = Math.min(src.length - i, segment.capacity() - offset);
+        ByteBuffer view = segment.duplicate();
+        ((Buffer) view).position(offset);
+        view.put(src, i, n);
+        i = i + n;
+      }
+    }
+
+    public void close() throws IOException {
+      if (channel != null)
+        channel.close();
+    }
+
+    /**
+     * @return the existing segment containing the given address
+     */
+    private ByteBuffer segment(long address) {
+      return segments.get(Math.toIntExact(address / segmentSize));
+    }
+
+    /**
+     * @return the segment containing the given address, allocating or growing it and any segments
+     *         before it if necessary
+     */
+    private ByteBuffer allocate(long address) throws IOException {
+      int index = Math.toIntExact(address / segmentSize);
+
+      if (index == 0) {
+        int needed = offset(address) + 1;
+        if (segments.isEmpty() || segments.get(0).capacity() < needed) {
+          int size = segments.isEmpty() ? Math.min(INITIAL_SEGMENT_SIZE, segmentSize)
+              : segments.get(0).capacity();
+          while (size < needed)
+            size = (int) Math.min(segmentSize, 2L * size);
+          resizeFirst(size);
+        }
+        return segments.get(0);
+      }
+
+      if (segments.isEmpty() || segments.get(0).capacity() < segmentSize)
+        resizeFirst(segmentSize);
+      while (segments.size() <= index)
+        segments.add(map((long) segments.size() * segmentSize, segmentSize));
+
+      return segments.get(index);
+    }
+
+    /**
+     * Replaces the first segment with one of the given size that holds the same contents
+     */
+    private void resizeFirst(int size) throws IOException {
+      ByteBuffer grown = map(0L, size);
+      if (segments.isEmpty()) {
+        segments.add(grown);
+        return;
+      }
+
+      // Mapped segments share the file's contents, so only direct buffers need to be copied.
+      if (channel == null) {
+        ByteBuffer old = segments.get(0).duplicate();
+        ((Buffer) old).clear();
+        grown.put(old);
+        ((Buffer) grown).clear();
+      }
+      segments.set(0, grown);
+    }
+
+    private ByteBuffer map(long position, int size) throws IOException {
+      if (channel != null)
+        return channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+      return ByteBuffer.allocateDirect(size);
+    }
+
+    private int offset(long address) {
+      return (int) (address % segmentSize);
+    }
+  }
+}
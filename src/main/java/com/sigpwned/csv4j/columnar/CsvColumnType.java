@@ -0,0 +1,64 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.columnar;
+
+/**
+ * The type of a column in a {@link CsvSchema}, which determines how its values are parsed and the
+ * type of array that holds them in a {@link CsvColumnBatch}
+ */
+public enum CsvColumnType {
+  /**
+   * {@code true} or {@code false}, ignoring case, held in a {@code boolean[]}
+   */
+  BOOLEAN,
+
+  /**
+   * A 32-bit decimal integer, held in an {@code int[]}
+   */
+  INT,
+
+  /**
+   * A 64-bit decimal integer, held in a {@code long[]}
+   */
+  LONG,
+
+  /**
+   * A decimal floating-point number, held in a {@code double[]}
+   */
+  DOUBLE,
+
+  /**
+   * An ISO-8601 local date, e.g., {@code 2024-01-31}, held in an {@code int[]} as the number of
+   * days since 1970-01-01
+   */
+  DATE,
+
+  /**
+   * An ISO-8601 local date and time with an optional fraction of up to six digits, e.g.,
+   * {@code 2024-01-31T12:34:56.789}, held in a {@code long[]} as the number of microseconds since
+   * 1970-01-01T00:00:00
+   */
+  TIMESTAMP,
+
+  /**
+   * Any text, held in a {@code String[]}
+   */
+  STRING;
+}
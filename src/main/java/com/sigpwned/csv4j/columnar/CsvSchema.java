@@ -0,0 +1,175 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.columnar;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The names and types of the columns to read from a CSV file. Columns are matched to the file's
+ * header by name, so their order need not match the file's.
+ */
+public final class CsvSchema {
+  public static CsvSchema of(Column... columns) {
+    return new CsvSchema(asList(columns));
+  }
+
+  public static CsvSchema of(List<Column> columns) {
+    return new CsvSchema(columns);
+  }
+
+  /**
+   * One column of a schema. Besides its name and type, a column may describe its values, e.g., when
+   * it was {@link CsvSchemas#infer(com.sigpwned.csv4j.CsvFormat, java.io.Reader, int) inferred}
+   * from a sample of a file. This description is informational, and is not enforced when reading.
+   */
+  public static final class Column {
+    public static final int UNKNOWN_WIDTH = -1;
+
+    public static Column of(String name, CsvColumnType type) {
+      return new Column(name, type, true, UNKNOWN_WIDTH);
+    }
+
+    public static Column of(String name, CsvColumnType type, boolean nullable, int maxWidth) {
+      return new Column(name, type, nullable, maxWidth);
+    }
+
+    private final String name;
+    private final CsvColumnType type;
+    private final boolean nullable;
+    private final int maxWidth;
+
+    public Column(String name, CsvColumnType type, boolean nullable, int maxWidth) {
+      if (maxWidth < UNKNOWN_WIDTH)
+        throw new IllegalArgumentException("maxWidth must be non-negative or UNKNOWN_WIDTH");
+      this.name = requireNonNull(name);
+      this.type = requireNonNull(type);
+      this.nullable = nullable;
+      this.maxWidth = maxWidth;
+    }
+
+    /**
+     * @return the name
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * @return the type
+     */
+    public CsvColumnType getType() {
+      return type;
+    }
+
+    /**
+     * @return {@code false} if the column is known to contain no null values, or {@code true}
+     *         otherwise
+     */
+    public boolean isNullable() {
+      return nullable;
+    }
+
+    /**
+     * @return the length of the longest value in the column, or {@link #UNKNOWN_WIDTH} if it is
+     *         not known
+     */
+    public int getMaxWidth() {
+      return maxWidth;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(name, type, nullable, maxWidth);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj)
+        return true;
+      if (obj == null)
+        return false;
+      if (getClass() != obj.getClass())
+        return false;
+      Column other = (Column) obj;
+      return Objects.equals(name, other.name) && type == other.type && nullable == other.nullable
+          && maxWidth == other.maxWidth;
+    }
+
+    @Override
+    public String toString() {
+      return "Column [name=" + name + ", type=" + type + ", nullable=" + nullable + ", maxWidth="
+          + maxWidth + "]";
+    }
+  }
+
+  private final List<Column> columns;
+
+  public CsvSchema(List<Column> columns) {
+    Set<String> seen = new HashSet<>();
+    for (Column column : columns)
+      if (!seen.add(column.getName()))
+        throw new IllegalArgumentException("duplicate column " + column.getName());
+    this.columns = unmodifiableList(new ArrayList<>(columns));
+  }
+
+  /**
+   * @return the columns
+   */
+  public List<Column> getColumns() {
+    return columns;
+  }
+
+  public Column getColumn(int index) {
+    return getColumns().get(index);
+  }
+
+  public int size() {
+    return getColumns().size();
+  }
+
+  @Override
+  public int hashCode() {
+    return columns.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (obj == null)
+      return false;
+    if (getClass() != obj.getClass())
+      return false;
+    CsvSchema other = (CsvSchema) obj;
+    return columns.equals(other.columns);
+  }
+
+  @Override
+  public String toString() {
+    return "CsvSchema [columns=" + columns + "]";
+  }
+}
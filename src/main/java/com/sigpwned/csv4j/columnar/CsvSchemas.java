@@ -0,0 +1,322 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.columnar;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import com.sigpwned.csv4j.CsvFormat;
+import com.sigpwned.csv4j.CsvHeader;
+import com.sigpwned.csv4j.read.CsvHandler;
+import com.sigpwned.csv4j.read.CsvParser;
+import com.sigpwned.csv4j.read.LineCountingCharStream;
+import com.sigpwned.csv4j.read.MalformedRecordException;
+import com.sigpwned.csv4j.util.Boms;
+import com.sigpwned.csv4j.util.CsvNumbers;
+
+/**
+ * Infers {@link CsvSchema schemas} from samples of CSV data. The first record is the header, which
+ * gives the column names. Each column gets the most specific {@link CsvColumnType type} that can
+ * parse all of its non-null sampled values, in the order {@link CsvColumnType#BOOLEAN BOOLEAN},
+ * {@link CsvColumnType#INT INT}, {@link CsvColumnType#LONG LONG}, {@link CsvColumnType#DOUBLE
+ * DOUBLE}, {@link CsvColumnType#DATE DATE}, {@link CsvColumnType#TIMESTAMP TIMESTAMP}, and finally
+ * {@link CsvColumnType#STRING STRING}. A column with no non-null values is a string column. Each
+ * column also records whether any sampled value was null, and the length of its longest sampled
+ * value.
+ * 
+ * Values are tested directly in the parser's buffer without being parsed, so sampling creates no
+ * field or exception objects. Every value a type accepts here can be parsed by
+ * {@link CsvColumnBatchReader}. Only plain decimal numbers make a column
+ * {@link CsvColumnType#DOUBLE DOUBLE}, so text like {@code NaN}, {@code 1d}, or hexadecimal
+ * notation makes it a string column. Note that a schema inferred from a sample may not fit values
+ * outside the sample.
+ */
+public final class CsvSchemas {
+  private CsvSchemas() {}
+
+  public static final int DEFAULT_SAMPLE_SIZE = 1000;
+
+  public static final int DEFAULT_CHUNKS = 16;
+
+  private static final CsvColumnType[] CANDIDATES = {CsvColumnType.BOOLEAN, CsvColumnType.INT,
+      CsvColumnType.LONG, CsvColumnType.DOUBLE, CsvColumnType.DATE, CsvColumnType.TIMESTAMP};
+
+  private static final int ALL = (1 << CANDIDATES.length) - 1;
+
+  /**
+   * Parses records without looking at them
+   */
+  private static final CsvHandler DISCARD = (buf, off, len, quoted) -> {
+  };
+
+  /**
+   * Infers a schema from the header and up to the given number of the following records of the
+   * given character stream. The stream is not closed.
+   * 
+   * @return the schema, or {@code null} if the stream is empty
+   */
+  public static CsvSchema infer(CsvFormat format, Reader in, int sampleSize) throws IOException {
+    if (sampleSize < 0)
+      throw new IllegalArgumentException("sampleSize must not be negative");
+
+    CsvParser parser = new CsvParser(format);
+    LineCountingCharStream chars = new LineCountingCharStream(in);
+    if (chars.peek() == -1)
+      return null;
+
+    Sampler sampler = new Sampler(CsvHeader.of(parser.parseRecord(chars)), false);
+    for (int i = 0; i < sampleSize && chars.peek() != -1; i++)
+      parser.parseRecord(chars, sampler);
+
+    return sampler.toSchema();
+  }
+
+  /**
+   * Infers a schema from the given UTF-8 file by reading its header and then up to the given number
+   * of records from each of the given number of evenly spaced chunks of the file. Each chunk after
+   * the first starts at the first line break after its offset, which may fall inside a quoted
+   * field. To limit the damage, the first record of each such chunk is skipped, records that do
+   * not have one field per header column are not sampled, and chunks in which a malformed record
+   * is found are abandoned.
+   * 
+   * @return the schema, or {@code null} if the file is empty
+   * @throws IllegalArgumentException if the file has a BOM other than the UTF-8 BOM. Use
+   *         {@link #infer(CsvFormat, Reader, int)} for other character sets.
+   */
+  public static CsvSchema infer(CsvFormat format, Path file, int chunks, int chunkSize)
+      throws IOException {
+    if (chunks < 1)
+      throw new IllegalArgumentException("chunks must be positive");
+    if (chunkSize < 0)
+      throw new IllegalArgumentException("chunkSize must not be negative");
+
+    CsvParser parser = new CsvParser(format);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final long size = channel.size();
+
+      Sampler sampler;
+      try (PushbackInputStream head =
+          new PushbackInputStream(Files.newInputStream(file), Boms.MAX_BOM_LENGTH)) {
+        // The chunks are decoded as UTF-8, so the whole file must be UTF-8.
+        byte[] bom = Boms.detectBom(head);
+        if (bom != null && !Arrays.equals(bom, Boms.UTF_8))
+          throw new IllegalArgumentException("only UTF-8 files can be sampled in chunks");
+
+        LineCountingCharStream chars =
+            new LineCountingCharStream(new InputStreamReader(head, StandardCharsets.UTF_8));
+        if (chars.peek() == -1)
+          return null;
+        sampler = new Sampler(CsvHeader.of(parser.parseRecord(chars)), false);
+        for (int i = 0; i < chunkSize && chars.peek() != -1; i++)
+          parser.parseRecord(chars, sampler);
+      }
+
+      sampler = new Sampler(sampler, true);
+      for (int chunk = 1; chunk < chunks; chunk++) {
+        channel.position(size * chunk / chunks);
+
+        // We don't close this stream, since that would close the channel.
+        PushbackInputStream bytes =
+            new PushbackInputStream(Channels.newInputStream(channel), 1);
+        if (!skipLine(bytes))
+          break;
+
+        LineCountingCharStream chars =
+            new LineCountingCharStream(new InputStreamReader(bytes, StandardCharsets.UTF_8));
+        try {
+          // The first record may be the tail of a quoted field that happens to have the right
+          // number of fields, so we never sample it.
+          if (chars.peek() != -1)
+            parser.parseRecord(chars, DISCARD);
+          for (int i = 0; i < chunkSize && chars.peek() != -1; i++)
+            parser.parseRecord(chars, sampler);
+        } catch (MalformedRecordException e) {
+          // We probably started inside a quoted field. Move on to the next chunk.
+        }
+      }
+
+      return sampler.toSchema();
+    }
+  }
+
+  /**
+   * Consumes the rest of the current line, including its line break.
+   * 
+   * @return {@code true} if a line break was found, or {@code false} if the end of the stream was
+   *         reached first
+   */
+  private static boolean skipLine(PushbackInputStream in) throws IOException {
+    for (int b = in.read(); b != -1; b = in.read()) {
+      if (b == '\n' || b == '\r') {
+        int next = in.read();
+        if (next != -1 && next != (b == '\n' ? '\r' : '\n'))
+          in.unread(next);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Collects the facts about each column that determine its schema
+   */
+  private static final class Sampler implements CsvHandler {
+    private final CsvHeader header;
+
+    /**
+     * If {@code true}, then records are only sampled if they have one field per header column
+     */
+    private final boolean strict;
+
+    /**
+     * The candidate types of each column, as a bitmap over {@link CsvSchemas#CANDIDATES}
+     */
+    private final int[] candidates;
+    private final boolean[] nullable;
+    private final boolean[] seen;
+    private final int[] maxWidths;
+
+    /**
+     * The candidates, nulls, and widths of the current record, which are only committed to the
+     * column stats once the record ends
+     */
+    private final int[] recordCandidates;
+    private final boolean[] recordNulls;
+    private final int[] recordWidths;
+    private int column;
+
+    public Sampler(CsvHeader header, boolean strict) {
+      int n = header.size();
+      this.header = header;
+      this.strict = strict;
+      this.candidates = new int[n];
+      this.nullable = new boolean[n];
+      this.seen = new boolean[n];
+      this.maxWidths = new int[n];
+      this.recordCandidates = new int[n];
+      this.recordNulls = new boolean[n];
+      this.recordWidths = new int[n];
+      for (int i = 0; i < n; i++)
+        candidates[i] = ALL;
+    }
+
+    /**
+     * Creates a sampler that continues from the given sampler's stats
+     */
+    public Sampler(Sampler that, boolean strict) {
+      this(that.header, strict);
+      System.arraycopy(that.candidates, 0, candidates, 0, candidates.length);
+      System.arraycopy(that.nullable, 0, nullable, 0, nullable.length);
+      System.arraycopy(that.seen, 0, seen, 0, seen.length);
+      System.arraycopy(that.maxWidths, 0, maxWidths, 0, maxWidths.length);
+    }
+
+    @Override
+    public void startRecord(int linenum) {
+      column = 0;
+    }
+
+    @Override
+    public void field(char[] buf, int off, int len, boolean quoted) {
+      int i = column;
+      column = column + 1;
+      if (i >= recordCandidates.length)
+        return;
+
+      recordWidths[i] = len;
+      recordNulls[i] = len == 0 && !quoted;
+      recordCandidates[i] = recordNulls[i] ? ALL : candidates(candidates[i], buf, off, len);
+    }
+
+    @Override
+    public void endRecord() {
+      int n = recordCandidates.length;
+      if (strict && column != n)
+        return;
+
+      for (int i = 0; i < n; i++) {
+        if (i >= column || recordNulls[i]) {
+          nullable[i] = true;
+        } else {
+          seen[i] = true;
+          candidates[i] = candidates[i] & recordCandidates[i];
+        }
+        if (i < column)
+          maxWidths[i] = Math.max(maxWidths[i], recordWidths[i]);
+      }
+    }
+
+    public CsvSchema toSchema() {
+      List<CsvSchema.Column> columns = new ArrayList<>(header.size());
+      for (int i = 0; i < header.size(); i++) {
+        CsvColumnType type = CsvColumnType.STRING;
+        if (seen[i] && candidates[i] != 0)
+          type = CANDIDATES[Integer.numberOfTrailingZeros(candidates[i])];
+        columns.add(CsvSchema.Column.of(header.getName(i), type, nullable[i], maxWidths[i]));
+      }
+      return CsvSchema.of(columns);
+    }
+  }
+
+  /**
+   * @return the given candidate types that can parse the given value, as a bitmap over
+   *         {@link #CANDIDATES}. Once a column's values have ruled out every candidate, its values
+   *         are no longer parsed at all.
+   */
+  private static int candidates(int candidates, char[] buf, int off, int len) {
+    int result = 0;
+    for (int i = 0; i < CANDIDATES.length; i++) {
+      if ((candidates & (1 << i)) == 0)
+        continue;
+      if (accepts(CANDIDATES[i], buf, off, len))
+        result = result | (1 << i);
+    }
+    return result;
+  }
+
+  private static boolean accepts(CsvColumnType type, char[] buf, int off, int len) {
+    switch (type) {
+      case BOOLEAN:
+        return Values.isBoolean(buf, off, len);
+      case INT:
+        return CsvNumbers.isInt(buf, off, len);
+      case LONG:
+        return CsvNumbers.isLong(buf, off, len);
+      case DOUBLE:
+        return CsvNumbers.isDecimal(buf, off, len);
+      case DATE:
+        return Values.isDate(buf, off, len);
+      case TIMESTAMP:
+        return Values.isTimestamp(buf, off, len);
+      default:
+        throw new AssertionError(type);
+    }
+  }
+}
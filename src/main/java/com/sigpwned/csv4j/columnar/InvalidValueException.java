@@ -0,0 +1,50 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.columnar;
+
+import com.sigpwned.csv4j.CsvException;
+
+@SuppressWarnings("serial")
+public class InvalidValueException extends CsvException {
+  /**
+   * The zero-indexed line number on which the record containing the invalid value starts.
+   */
+  private final int linenum;
+
+  /**
+   * The name of the column containing the invalid value.
+   */
+  private final String column;
+
+  public InvalidValueException(int linenum, String column, CsvColumnType type, String text) {
+    super("Value \"" + text + "\" in column " + column + " of CSV record starting on line "
+        + linenum + " is not a valid " + type);
+    this.linenum = linenum;
+    this.column = column;
+  }
+
+  public int getLinenum() {
+    return linenum;
+  }
+
+  public String getColumn() {
+    return column;
+  }
+}
@@ -0,0 +1,204 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.columnar;
+
+/**
+ * Parses the values of the non-numeric {@link CsvColumnType column types} directly from a character
+ * buffer. Like {@link com.sigpwned.csv4j.util.CsvNumbers}, these methods accept exactly the text of
+ * the value, and throw {@link NumberFormatException} if it is not valid, and the {@code is} methods
+ * test text without throwing.
+ */
+/* default */ final class Values {
+  private Values() {}
+
+  private static final long MICROS_PER_SECOND = 1000000L;
+
+  private static final long SECONDS_PER_DAY = 86400L;
+
+  /**
+   * @return {@code true} if {@link #parseBoolean(char[], int, int)} accepts the given text
+   */
+  public static boolean isBoolean(char[] buf, int off, int len) {
+    return matches("true", buf, off, len) || matches("false", buf, off, len);
+  }
+
+  /**
+   * Parses {@code true} or {@code false}, ignoring case.
+   */
+  public static boolean parseBoolean(char[] buf, int off, int len) {
+    if (matches("true", buf, off, len))
+      return true;
+    if (matches("false", buf, off, len))
+      return false;
+    throw invalid(buf, off, len);
+  }
+
+  /**
+   * @return {@code true} if {@link #parseDate(char[], int, int)} accepts the given text
+   */
+  public static boolean isDate(char[] buf, int off, int len) {
+    return len == 10 && isDateAt(buf, off);
+  }
+
+  /**
+   * Parses an ISO-8601 local date, e.g., {@code 2024-01-31}.
+   * 
+   * @return the number of days since 1970-01-01
+   */
+  public static int parseDate(char[] buf, int off, int len) {
+    if (!isDate(buf, off, len))
+      throw invalid(buf, off, len);
+    return (int) date(buf, off);
+  }
+
+  /**
+   * @return {@code true} if {@link #parseTimestamp(char[], int, int)} accepts the given text
+   */
+  public static boolean isTimestamp(char[] buf, int off, int len) {
+    if (len < 19 || len == 20 || len > 26)
+      return false;
+    if (buf[off + 10] != 'T' && buf[off + 10] != ' ')
+      return false;
+    if (buf[off + 13] != ':' || buf[off + 16] != ':')
+      return false;
+    if (!isDateAt(buf, off) || !isDigits(buf, off + 11, 2) || !isDigits(buf, off + 14, 2)
+        || !isDigits(buf, off + 17, 2))
+      return false;
+    if (digits(buf, off + 11, 2) > 23 || digits(buf, off + 14, 2) > 59
+        || digits(buf, off + 17, 2) > 59)
+      return false;
+    if (len > 19 && (buf[off + 19] != '.' || !isDigits(buf, off + 20, len - 20)))
+      return false;
+    return true;
+  }
+
+  /**
+   * Parses an ISO-8601 local date and time with an optional fraction of up to six digits, e.g.,
+   * {@code 2024-01-31T12:34:56.789}. The date and time may also be separated by a space.
+   * 
+   * @return the number of microseconds since 1970-01-01T00:00:00
+   */
+  public static long parseTimestamp(char[] buf, int off, int len) {
+    if (!isTimestamp(buf, off, len))
+      throw invalid(buf, off, len);
+
+    long days = date(buf, off);
+    int hour = digits(buf, off + 11, 2);
+    int minute = digits(buf, off + 14, 2);
+    int second = digits(buf, off + 17, 2);
+
+    long micros = 0L;
+    if (len > 19) {
+      micros = digits(buf, off + 20, len - 20);
+      for (int i = len - 20; i < 6; i++)
+        micros = micros * 10L;
+    }
+
+    long seconds = days * SECONDS_PER_DAY + hour * 3600L + minute * 60L + second;
+
+    return seconds * MICROS_PER_SECOND + micros;
+  }
+
+  /**
+   * @return {@code true} if the given text starts with a valid ISO-8601 local date, which must be
+   *         at least 10 characters long
+   */
+  private static boolean isDateAt(char[] buf, int off) {
+    if (buf[off + 4] != '-' || buf[off + 7] != '-')
+      return false;
+    if (!isDigits(buf, off, 4) || !isDigits(buf, off + 5, 2) || !isDigits(buf, off + 8, 2))
+      return false;
+
+    int year = digits(buf, off, 4);
+    int month = digits(buf, off + 5, 2);
+    int day = digits(buf, off + 8, 2);
+    return month >= 1 && month <= 12 && day >= 1 && day <= lengthOfMonth(year, month);
+  }
+
+  /**
+   * Converts the valid date at the start of the given text.
+   * 
+   * @return the number of days since 1970-01-01
+   */
+  private static long date(char[] buf, int off) {
+    int year = digits(buf, off, 4);
+    int month = digits(buf, off + 5, 2);
+    int day = digits(buf, off + 8, 2);
+
+    // This is the same computation as LocalDate#toEpochDay, without creating the LocalDate.
+    long y = year;
+    long total = 365L * y;
+    total = total + (y + 3L) / 4L - (y + 99L) / 100L + (y + 399L) / 400L;
+    total = total + (367L * month - 362L) / 12L;
+    total = total + day - 1L;
+    if (month > 2)
+      total = total - (isLeapYear(year) ? 1L : 2L);
+
+    return total - 719528L;
+  }
+
+  private static boolean isDigits(char[] buf, int from, int count) {
+    for (int i = from; i < from + count; i++)
+      if (buf[i] < '0' || buf[i] > '9')
+        return false;
+    return true;
+  }
+
+  /**
+   * @return the value of the given run of digits, which must all be valid
+   */
+  private static int digits(char[] buf, int from, int count) {
+    int result = 0;
+    for (int i = from; i < from + count; i++)
+      result = 10 * result + (buf[i] - '0');
+    return result;
+  }
+
+  private static int lengthOfMonth(int year, int month) {
+    switch (month) {
+      case 2:
+        return isLeapYear(year) ? 29 : 28;
+      case 4:
+      case 6:
+      case 9:
+      case 11:
+        return 30;
+      default:
+        return 31;
+    }
+  }
+
+  private static boolean isLeapYear(int year) {
+    return (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+  }
+
+  private static boolean matches(String s, char[] buf, int off, int len) {
+    if (s.length() != len)
+      return false;
+    for (int i = 0; i < len; i++)
+      if (Character.toLowerCase(buf[off + i]) != s.charAt(i))
+        return false;
+    return true;
+  }
+
+  private static NumberFormatException invalid(char[] buf, int off, int len) {
+    return new NumberFormatException("For input string: \"" + new String(buf, off, len) + "\"");
+  }
+}
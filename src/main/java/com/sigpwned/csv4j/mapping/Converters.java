@@ -0,0 +1,146 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.mapping;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Converts field text to and from the property types that {@link CsvMapper} supports
+ */
+/* default */ final class Converters {
+  private Converters() {}
+
+  private static final Map<Class<?>, Function<String, ?>> PARSERS = new HashMap<>();
+  static {
+    PARSERS.put(String.class, s -> s);
+    PARSERS.put(CharSequence.class, s -> s);
+    PARSERS.put(boolean.class, Boolean::parseBoolean);
+    PARSERS.put(Boolean.class, Boolean::parseBoolean);
+    PARSERS.put(byte.class, Byte::parseByte);
+    PARSERS.put(Byte.class, Byte::parseByte);
+    PARSERS.put(short.class, Short::parseShort);
+    PARSERS.put(Short.class, Short::parseShort);
+    PARSERS.put(int.class, Integer::parseInt);
+    PARSERS.put(Integer.class, Integer::parseInt);
+    PARSERS.put(long.class, Long::parseLong);
+    PARSERS.put(Long.class, Long::parseLong);
+    PARSERS.put(float.class, Float::parseFloat);
+    PARSERS.put(Float.class, Float::parseFloat);
+    PARSERS.put(double.class, Double::parseDouble);
+    PARSERS.put(Double.class, Double::parseDouble);
+    PARSERS.put(char.class, Converters::parseChar);
+    PARSERS.put(Character.class, Converters::parseChar);
+    PARSERS.put(BigInteger.class, BigInteger::new);
+    PARSERS.put(BigDecimal.class, BigDecimal::new);
+    PARSERS.put(LocalDate.class, LocalDate::parse);
+    PARSERS.put(LocalTime.class, LocalTime::parse);
+    PARSERS.put(LocalDateTime.class, LocalDateTime::parse);
+    PARSERS.put(OffsetDateTime.class, OffsetDateTime::parse);
+    PARSERS.put(ZonedDateTime.class, ZonedDateTime::parse);
+    PARSERS.put(Instant.class, Instant::parse);
+  }
+
+  /**
+   * @return a function that parses field text into a value of the given type, or {@code null} if
+   *         the type is not supported
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public static Function<String, ?> parser(Class<?> type) {
+    if (type.isEnum())
+      return s -> Enum.valueOf((Class) type, s);
+    return PARSERS.get(type);
+  }
+
+  /**
+   * @return a function that formats a non-null value of the given type as field text, or
+   *         {@code null} if the type is not supported
+   */
+  public static Function<Object, String> formatter(Class<?> type) {
+    if (type.isEnum())
+      return o -> ((Enum<?>) o).name();
+    if (PARSERS.containsKey(type))
+      return Object::toString;
+    return null;
+  }
+
+  /**
+   * @return {@code true} if values of the given type should be written quoted, i.e., they are not
+   *         numbers or booleans
+   */
+  public static boolean isQuoted(Class<?> type) {
+    Class<?> boxed = box(type);
+    return !Number.class.isAssignableFrom(boxed) && boxed != Boolean.class;
+  }
+
+  /**
+   * @return the given type, or its wrapper type if it is primitive
+   */
+  public static Class<?> box(Class<?> type) {
+    if (!type.isPrimitive())
+      return type;
+    if (type == boolean.class)
+      return Boolean.class;
+    if (type == byte.class)
+      return Byte.class;
+    if (type == short.class)
+      return Short.class;
+    if (type == int.class)
+      return Integer.class;
+    if (type == long.class)
+      return Long.class;
+    if (type == float.class)
+      return Float.class;
+    if (type == double.class)
+      return Double.class;
+    if (type == char.class)
+      return Character.class;
+    throw new IllegalArgumentException(type.getName());
+  }
+
+  /**
+   * @return the zero value of the given type, e.g., {@code 0} for {@code int}, or {@code null} for
+   *         reference types
+   */
+  public static Object zero(Class<?> type) {
+    if (!type.isPrimitive())
+      return null;
+    if (type == boolean.class)
+      return false;
+    if (type == char.class)
+      return '\0';
+    return PARSERS.get(type).apply("0");
+  }
+
+  private static char parseChar(String s) {
+    if (s.length() != 1)
+      throw new IllegalArgumentException("not a single character: " + s);
+    return s.charAt(0);
+  }
+}
@@ -0,0 +1,489 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.mapping;
+
+import static java.util.Objects.requireNonNull;
+import java.io.IOException;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import com.sigpwned.csv4j.CsvField;
+import com.sigpwned.csv4j.CsvHeader;
+import com.sigpwned.csv4j.CsvRecord;
+import com.sigpwned.csv4j.read.CsvReader;
+import com.sigpwned.csv4j.read.MissingColumnException;
+import com.sigpwned.csv4j.write.CsvWriter;
+
+/**
+ * Maps CSV records to and from objects of a given class. Objects are read either with a public
+ * constructor whose parameters are all annotated with {@link CsvColumn}, or with a public
+ * no-argument constructor and public setters. Objects are written with public getters. Property
+ * names are the JavaBeans names of the accessors, e.g., {@code customerId} for
+ * {@code getCustomerId}, unless an accessor is annotated with {@link CsvColumn}.
+ * 
+ * All reflection happens once per class, when its mapper is created. Accessors are compiled into
+ * lambdas with {@link LambdaMetafactory}, so the JIT compiler can inline them like hand-written
+ * code. Columns are matched to properties by name once per file, when a header is
+ * {@link #bind(CsvRecord) bound}. Mappers are cached per class and are thread-safe.
+ */
+public final class CsvMapper<T> {
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  private static final ClassValue<CsvMapper<?>> MAPPERS = new ClassValue<CsvMapper<?>>() {
+    @Override
+    protected CsvMapper<?> computeValue(Class<?> type) {
+      return new CsvMapper<>(type);
+    }
+  };
+
+  /**
+   * @return the mapper for the given class
+   * @throws IllegalArgumentException if the class is not public
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> CsvMapper<T> of(Class<T> type) {
+    return (CsvMapper<T>) MAPPERS.get(type);
+  }
+
+  /**
+   * A readable or writable property
+   */
+  private static class Property {
+    public final String name;
+    public final Class<?> type;
+    public final Method setter;
+    public final Method getter;
+
+    public Property(String name, Class<?> type, Method setter, Method getter) {
+      this.name = name;
+      this.type = type;
+      this.setter = setter;
+      this.getter = getter;
+    }
+  }
+
+  private final Class<T> type;
+
+  /**
+   * Creates objects with the no-argument constructor, or {@code null} if there is none
+   */
+  private final Supplier<T> factory;
+
+  /**
+   * Creates objects with the annotated constructor, or {@code null} if there is none
+   */
+  private final CsvRowMapper.Creator<T> creator;
+
+  /**
+   * The column names and types of the annotated constructor's parameters, in order
+   */
+  private final List<String> creatorColumns;
+  private final List<Class<?>> creatorTypes;
+
+  /**
+   * The writable properties by column name
+   */
+  private final Map<String, Property> setters;
+  private final Map<String, BiConsumer<Object, Object>> setterLambdas;
+
+  /**
+   * The readable properties, in column name order
+   */
+  private final List<String> getterColumns;
+  private final List<Function<Object, Object>> getterLambdas;
+  private final List<Function<Object, String>> formatters;
+  private final boolean[] quoted;
+
+  private CsvMapper(Class<T> type) {
+    if (!Modifier.isPublic(type.getModifiers()))
+      throw new IllegalArgumentException("type must be public");
+    this.type = type;
+
+    Constructor<?> annotated = null;
+    Constructor<?> noArgs = null;
+    for (Constructor<?> c : type.getConstructors()) {
+      if (c.getParameterCount() == 0) {
+        noArgs = c;
+      } else {
+        boolean all = true;
+        for (Parameter p : c.getParameters())
+          all = all && p.isAnnotationPresent(CsvColumn.class);
+        if (all)
+          annotated = c;
+      }
+    }
+
+    if (annotated != null) {
+      List<String> columns = new ArrayList<>();
+      List<Class<?>> types = new ArrayList<>();
+      for (Parameter p : annotated.getParameters()) {
+        if (Converters.parser(p.getType()) == null)
+          throw new IllegalArgumentException("unsupported parameter type " + p.getType());
+        columns.add(p.getAnnotation(CsvColumn.class).value());
+        types.add(p.getType());
+      }
+      this.creator = creator(annotated);
+      this.creatorColumns = Collections.unmodifiableList(columns);
+      this.creatorTypes = Collections.unmodifiableList(types);
+      this.factory = null;
+    } else {
+      this.creator = null;
+      this.creatorColumns = null;
+      this.creatorTypes = null;
+      this.factory = noArgs != null ? factory(noArgs) : null;
+    }
+
+    Map<String, Property> properties = properties(type);
+
+    this.setters = new HashMap<>();
+    this.setterLambdas = new HashMap<>();
+    List<String> getterColumns = new ArrayList<>();
+    List<Function<Object, Object>> getterLambdas = new ArrayList<>();
+    List<Function<Object, String>> formatters = new ArrayList<>();
+    List<Boolean> quoted = new ArrayList<>();
+    for (Property property : properties.values()) {
+      if (property.setter != null && Converters.parser(property.type) != null) {
+        setters.put(property.name, property);
+        setterLambdas.put(property.name, setter(property.setter));
+      }
+      if (property.getter != null && Converters.formatter(property.type) != null) {
+        getterColumns.add(property.name);
+        getterLambdas.add(getter(property.getter));
+        formatters.add(Converters.formatter(property.type));
+        quoted.add(Converters.isQuoted(property.type));
+      }
+    }
+    this.getterColumns = Collections.unmodifiableList(getterColumns);
+    this.getterLambdas = getterLambdas;
+    this.formatters = formatters;
+    this.quoted = new boolean[quoted.size()];
+    for (int i = 0; i < this.quoted.length; i++)
+      this.quoted[i] = quoted.get(i);
+  }
+
+  /**
+   * Binds the columns of the given header record to this mapper's properties. Columns that do not
+   * match a property are ignored, and so are properties that do not match a column.
+   * 
+   * @throws MissingColumnException if the header has no column for a constructor parameter
+   * @throws IllegalStateException if this class has neither an annotated constructor nor a public
+   *         no-argument constructor
+   */
+  public CsvRowMapper<T> bind(CsvRecord header) throws MissingColumnException {
+    return bind(CsvHeader.of(header));
+  }
+
+  /**
+   * Binds the columns of the given header to this mapper's properties, as above.
+   */
+  @SuppressWarnings("unchecked")
+  public CsvRowMapper<T> bind(CsvHeader header) throws MissingColumnException {
+    if (creator != null) {
+      int n = creatorColumns.size();
+      int[] columns = new int[n];
+      Function<String, ?>[] parsers = (Function<String, ?>[]) new Function<?, ?>[n];
+      Class<?>[] types = new Class<?>[n];
+      for (int i = 0; i < n; i++) {
+        columns[i] = header.indexOf(creatorColumns.get(i));
+        if (columns[i] == -1)
+          throw new MissingColumnException(creatorColumns.get(i));
+        types[i] = creatorTypes.get(i);
+        parsers[i] = Converters.parser(types[i]);
+      }
+      return new CsvRowMapper<>(creator, columns, parsers, types);
+    }
+
+    if (factory == null)
+      throw new IllegalStateException("no way to create " + type.getName());
+
+    List<Integer> columns = new ArrayList<>();
+    List<Property> bound = new ArrayList<>();
+    for (int i = 0; i < header.size(); i++) {
+      Property property = setters.get(header.getName(i));
+      if (property != null) {
+        columns.add(i);
+        bound.add(property);
+      }
+    }
+
+    int n = bound.size();
+    int[] columnArray = new int[n];
+    Function<String, ?>[] parsers = (Function<String, ?>[]) new Function<?, ?>[n];
+    Class<?>[] types = new Class<?>[n];
+    BiConsumer<Object, Object>[] setterArray =
+        (BiConsumer<Object, Object>[]) new BiConsumer<?, ?>[n];
+    for (int i = 0; i < n; i++) {
+      columnArray[i] = columns.get(i);
+      types[i] = bound.get(i).type;
+      parsers[i] = Converters.parser(types[i]);
+      setterArray[i] = setterLambdas.get(bound.get(i).name);
+    }
+    return new CsvRowMapper<>(factory, columnArray, parsers, types, setterArray);
+  }
+
+  /**
+   * Reads the remaining records of the given reader. The first record is the header, which is
+   * bound with {@link #bind(CsvRecord)}.
+   */
+  public Stream<T> read(CsvReader reader) throws IOException {
+    CsvRecord header = reader.readNext();
+    if (header == null)
+      return Stream.empty();
+    CsvRowMapper<T> mapper = bind(header);
+    return reader.stream().map(mapper::map);
+  }
+
+  /**
+   * @return the header record for the records that {@link #toRecord(Object)} produces, which has a
+   *         column for each readable property in name order
+   */
+  public CsvRecord header() {
+    List<CsvField> fields = new ArrayList<>(getterColumns.size());
+    for (String column : getterColumns)
+      fields.add(new CsvField(true, column));
+    return CsvRecord.of(fields);
+  }
+
+  /**
+   * @return a record containing the readable properties of the given object. Text values are
+   *         quoted, numbers and booleans are not, and {@code null} values are empty and unquoted.
+   */
+  public CsvRecord toRecord(T value) {
+    List<CsvField> fields = new ArrayList<>(getterLambdas.size());
+    for (int i = 0; i < getterLambdas.size(); i++) {
+      Object property = getterLambdas.get(i).apply(value);
+      if (property == null)
+        fields.add(new CsvField(false, ""));
+      else
+        fields.add(new CsvField(quoted[i], formatters.get(i).apply(property)));
+    }
+    return CsvRecord.of(fields);
+  }
+
+  /**
+   * Writes the {@link #header() header} and then the given values to the given writer.
+   */
+  public void write(CsvWriter writer, Iterable<? extends T> values) throws IOException {
+    writer.writeNext(header());
+    for (T value : values)
+      writer.writeNext(toRecord(value));
+  }
+
+  /**
+   * Finds the public bean properties of the given type, keyed and sorted by column name.
+   */
+  private static Map<String, Property> properties(Class<?> type) {
+    Map<String, Method> setters = new HashMap<>();
+    Map<String, Method> getters = new HashMap<>();
+    for (Method method : type.getMethods()) {
+      if (Modifier.isStatic(method.getModifiers()) || method.getDeclaringClass() == Object.class)
+        continue;
+      String name = method.getName();
+      if (name.length() > 3 && name.startsWith("set") && method.getParameterCount() == 1) {
+        setters.put(decapitalize(name.substring(3)), method);
+      } else if (method.getParameterCount() == 0 && method.getReturnType() != void.class) {
+        if (name.length() > 3 && name.startsWith("get"))
+          getters.put(decapitalize(name.substring(3)), method);
+        else if (name.length() > 2 && name.startsWith("is")
+            && method.getReturnType() == boolean.class)
+          getters.put(decapitalize(name.substring(2)), method);
+      }
+    }
+
+    Map<String, Property> result = new TreeMap<>();
+    for (Map.Entry<String, Method> e : setters.entrySet()) {
+      Method setter = e.getValue();
+      Method getter = getters.remove(e.getKey());
+      if (getter != null && getter.getReturnType() != setter.getParameterTypes()[0])
+        getter = null;
+      String column = column(e.getKey(), setter, getter);
+      result.put(column, new Property(column, setter.getParameterTypes()[0], setter, getter));
+    }
+    for (Map.Entry<String, Method> e : getters.entrySet()) {
+      Method getter = e.getValue();
+      String column = column(e.getKey(), null, getter);
+      result.put(column, new Property(column, getter.getReturnType(), null, getter));
+    }
+
+    return result;
+  }
+
+  private static String column(String property, Method setter, Method getter) {
+    if (setter != null && setter.isAnnotationPresent(CsvColumn.class))
+      return setter.getAnnotation(CsvColumn.class).value();
+    if (getter != null && getter.isAnnotationPresent(CsvColumn.class))
+      return getter.getAnnotation(CsvColumn.class).value();
+    return property;
+  }
+
+  /**
+   * Converts a capitalized property name to its JavaBeans name, e.g., {@code Name} to
+   * {@code name}, but {@code URL} to {@code URL}.
+   */
+  private static String decapitalize(String name) {
+    if (name.length() > 1 && Character.isUpperCase(name.charAt(0))
+        && Character.isUpperCase(name.charAt(1)))
+      return name;
+    return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> Supplier<T> factory(Constructor<?> constructor) {
+    MethodHandle handle = unreflect(constructor);
+    if (isVisible(constructor.getDeclaringClass())) {
+      try {
+        return (Supplier<T>) metafactory(Supplier.class, "get",
+            MethodType.methodType(Object.class), handle,
+            MethodType.methodType(constructor.getDeclaringClass()));
+      } catch (Throwable e) {
+        // The metafactory rejected the constructor. Fall back to the method handle.
+      }
+    }
+    MethodHandle generic = handle.asType(MethodType.methodType(Object.class));
+    return () -> (T) invoke(() -> generic.invokeExact());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> CsvRowMapper.Creator<T> creator(Constructor<?> constructor) {
+    MethodHandle handle = unreflect(constructor);
+    MethodHandle spread = handle.asSpreader(Object[].class, constructor.getParameterCount())
+        .asType(MethodType.methodType(Object.class, Object[].class));
+    return args -> (T) invoke(() -> spread.invokeExact(args));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static BiConsumer<Object, Object> setter(Method method) {
+    MethodHandle handle = unreflect(method);
+    if (isVisible(method.getDeclaringClass(), method.getParameterTypes()[0])) {
+      try {
+        return (BiConsumer<Object, Object>) metafactory(BiConsumer.class, "accept",
+            MethodType.methodType(void.class, Object.class, Object.class), handle,
+            MethodType.methodType(void.class, method.getDeclaringClass(),
+                Converters.box(method.getParameterTypes()[0])));
+      } catch (Throwable e) {
+        // The metafactory rejected the setter. Fall back to the method handle.
+      }
+    }
+    MethodHandle generic =
+        handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+    return (o, v) -> invoke(() -> {
+      generic.invokeExact(o, v);
+      return null;
+    });
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Function<Object, Object> getter(Method method) {
+    MethodHandle handle = unreflect(method);
+    if (isVisible(method.getDeclaringClass(), method.getReturnType())) {
+      try {
+        return (Function<Object, Object>) metafactory(Function.class, "apply",
+            MethodType.methodType(Object.class, Object.class), handle,
+            MethodType.methodType(Converters.box(method.getReturnType()),
+                method.getDeclaringClass()));
+      } catch (Throwable e) {
+        // The metafactory rejected the getter. Fall back to the method handle.
+      }
+    }
+    MethodHandle generic = handle.asType(MethodType.methodType(Object.class, Object.class));
+    return o -> invoke(() -> generic.invokeExact(o));
+  }
+
+  /**
+   * Lambdas are defined in our class loader, so they can only refer to classes that our class
+   * loader resolves to the same class. Classes from a child class loader, e.g., a web application
+   * or plugin, are not, and accessors that refer to them must use method handles instead.
+   * 
+   * @return {@code true} if our class loader resolves each of the given classes to itself, or
+   *         {@code false} otherwise
+   */
+  private static boolean isVisible(Class<?>... types) {
+    for (Class<?> type : types) {
+      if (type.isPrimitive())
+        continue;
+      try {
+        if (Class.forName(type.getName(), false, CsvMapper.class.getClassLoader()) != type)
+          return false;
+      } catch (ClassNotFoundException | LinkageError e) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static Object metafactory(Class<?> iface, String name, MethodType erased,
+      MethodHandle implementation, MethodType instantiated) throws Throwable {
+    CallSite site = LambdaMetafactory.metafactory(LOOKUP, name, MethodType.methodType(iface),
+        erased, implementation, instantiated);
+    return site.getTarget().invoke();
+  }
+
+  private static MethodHandle unreflect(Method method) {
+    try {
+      return LOOKUP.unreflect(method);
+    } catch (IllegalAccessException e) {
+      throw new IllegalArgumentException("cannot access " + method, e);
+    }
+  }
+
+  private static MethodHandle unreflect(Constructor<?> constructor) {
+    try {
+      return LOOKUP.unreflectConstructor(constructor);
+    } catch (IllegalAccessException e) {
+      throw new IllegalArgumentException("cannot access " + constructor, e);
+    }
+  }
+
+  /**
+   * Calls a method handle
+   */
+  private interface Invocation {
+    Object invoke() throws Throwable;
+  }
+
+  /**
+   * Runs the given invocation, passing through unchecked exceptions and wrapping checked ones.
+   */
+  private static Object invoke(Invocation invocation) {
+    try {
+      return invocation.invoke();
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,125 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.mapping;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import com.sigpwned.csv4j.CsvField;
+import com.sigpwned.csv4j.CsvRecord;
+
+/**
+ * Maps the records of one CSV file to objects. Each column has already been bound to its property
+ * or constructor parameter, so mapping a record is a loop over precomputed column indexes and
+ * generated accessors, with no reflection or name lookups. Instances are created by
+ * {@link CsvMapper#bind(CsvRecord)} and are thread-safe.
+ */
+public final class CsvRowMapper<T> {
+  /**
+   * Creates an object from its constructor arguments
+   */
+  /* default */ interface Creator<T> {
+    T create(Object[] args);
+  }
+
+  private final Supplier<T> factory;
+  private final Creator<T> creator;
+  private final int[] columns;
+  private final Function<String, ?>[] parsers;
+  private final Class<?>[] types;
+  private final BiConsumer<Object, Object>[] setters;
+
+  /**
+   * Whether each column is text, which is empty rather than {@code null} when the field is empty
+   */
+  private final boolean[] text;
+
+  /**
+   * Creates a mapper that creates each object with the given factory and then sets the given
+   * properties.
+   */
+  /* default */ CsvRowMapper(Supplier<T> factory, int[] columns, Function<String, ?>[] parsers,
+      Class<?>[] types, BiConsumer<Object, Object>[] setters) {
+    this.factory = factory;
+    this.creator = null;
+    this.columns = columns;
+    this.parsers = parsers;
+    this.types = types;
+    this.setters = setters;
+    this.text = text(types);
+  }
+
+  /**
+   * Creates a mapper that creates each object by passing the given columns to the given creator.
+   */
+  /* default */ CsvRowMapper(Creator<T> creator, int[] columns, Function<String, ?>[] parsers,
+      Class<?>[] types) {
+    this.factory = null;
+    this.creator = creator;
+    this.columns = columns;
+    this.parsers = parsers;
+    this.types = types;
+    this.setters = null;
+    this.text = text(types);
+  }
+
+  /**
+   * Maps the given record. Empty fields are {@code null}, or leave primitives at zero, except for
+   * text properties, which are empty. Columns missing from the record are treated as empty.
+   * 
+   * @throws IllegalArgumentException if a field cannot be converted, e.g.,
+   *         {@link NumberFormatException}
+   */
+  public T map(CsvRecord record) {
+    final List<CsvField> fields = record.getFields();
+    if (creator != null) {
+      Object[] args = new Object[columns.length];
+      for (int i = 0; i < columns.length; i++) {
+        String text = columns[i] < fields.size() ? fields.get(columns[i]).getText() : "";
+        args[i] = convert(i, text);
+      }
+      return creator.create(args);
+    } else {
+      T result = factory.get();
+      for (int i = 0; i < columns.length; i++) {
+        if (columns[i] >= fields.size())
+          continue;
+        Object value = convert(i, fields.get(columns[i]).getText());
+        if (value != null || !types[i].isPrimitive())
+          setters[i].accept(result, value);
+      }
+      return result;
+    }
+  }
+
+  private Object convert(int i, String value) {
+    if (value.isEmpty() && !text[i])
+      return creator != null ? Converters.zero(types[i]) : null;
+    return parsers[i].apply(value);
+  }
+
+  private static boolean[] text(Class<?>[] types) {
+    boolean[] result = new boolean[types.length];
+    for (int i = 0; i < types.length; i++)
+      result[i] = types[i] == String.class || types[i] == CharSequence.class;
+    return result;
+  }
+}
@@ -0,0 +1,97 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.read;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Finds the next occurrence of any of up to four bytes in a buffer, eight bytes at a time. Each
+ * step reads one {@code long} from the buffer and uses SWAR ("SIMD within a register") arithmetic
+ * to test all eight bytes against every target at once, so long runs of uninteresting bytes, like
+ * field text, are skipped quickly. The tail of the range is scanned one byte at a time.
+ */
+/* default */ final class ByteScanner {
+  private static final long ONES = 0x0101010101010101L;
+  private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+
+  private final byte a;
+  private final byte b;
+  private final byte c;
+  private final byte d;
+  private final long aaaa;
+  private final long bbbb;
+  private final long cccc;
+  private final long dddd;
+
+  /**
+   * Creates a scanner for the given target bytes. To scan for fewer than four bytes, repeat one.
+   */
+  public ByteScanner(byte a, byte b, byte c, byte d) {
+    this.a = a;
+    this.b = b;
+    this.c = c;
+    this.d = d;
+    this.aaaa = (a & 0xFFL) * ONES;
+    this.bbbb = (b & 0xFFL) * ONES;
+    this.cccc = (c & 0xFFL) * ONES;
+    this.dddd = (d & 0xFFL) * ONES;
+  }
+
+  /**
+   * @return the index of the first target byte in the given range of the given buffer, or
+   *         {@code to} if there is none
+   */
+  public int scan(ByteBuffer buf, int from, int to) {
+    final boolean bigEndian = buf.order() == ByteOrder.BIG_ENDIAN;
+
+    int p = from;
+    while (p + Long.BYTES <= to) {
+      final long word = buf.getLong(p);
+      final long found =
+          zeros(word ^ aaaa) | zeros(word ^ bbbb) | zeros(word ^ cccc) | zeros(word ^ dddd);
+      if (found != 0L) {
+        int bits = bigEndian ? Long.numberOfLeadingZeros(found)
+            : Long.numberOfTrailingZeros(found);
+        return p + (bits >>> 3);
+      }
+      p = p + Long.BYTES;
+    }
+
+    while (p < to) {
+      byte x = buf.get(p);
+      if (x == a || x == b || x == c || x == d)
+        return p;
+      p = p + 1;
+    }
+
+    return to;
+  }
+
+  /**
+   * @return a word with the high bit of each byte set if and only if that byte of the given word
+   *         is zero. Unlike the classic {@code (x - ONES) & ~x} trick, no borrow crosses a byte
+   *         boundary, so the result is exact for every byte, not just the first zero byte.
+   */
+  private static long zeros(long x) {
+    final long t = (x & LOW7) + LOW7;
+    return ~(t | x | LOW7);
+  }
+}
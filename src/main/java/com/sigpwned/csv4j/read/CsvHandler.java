@@ -0,0 +1,54 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.read;
+
+import java.io.IOException;
+
+/**
+ * Receives the records of a CSV file as a sequence of events from
+ * {@link CsvParser#parse(java.io.Reader, CsvHandler)}. For each record, the handler receives one
+ * call to {@link #startRecord(int)}, one call to {@link #field(char[], int, int, boolean)} per
+ * field, and one call to {@link #endRecord()}.
+ */
+public interface CsvHandler {
+  /**
+   * Called at the start of each record.
+   * 
+   * @param linenum the zero-indexed line number on which the record starts
+   */
+  default void startRecord(int linenum) throws IOException {}
+
+  /**
+   * Called for each field of the current record. The given buffer is the parser's internal buffer,
+   * so the field text is only valid for the duration of this call, and the handler must not modify
+   * it.
+   * 
+   * @param buf the buffer containing the (unescaped) field text
+   * @param off the offset of the field text in the buffer
+   * @param len the length of the field text
+   * @param quoted whether the field was quoted
+   */
+  void field(char[] buf, int off, int len, boolean quoted) throws IOException;
+
+  /**
+   * Called at the end of each record.
+   */
+  default void endRecord() throws IOException {}
+}
@@ -0,0 +1,265 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.read;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import com.sigpwned.csv4j.CsvFormat;
+import com.sigpwned.csv4j.util.Boms;
+import com.sigpwned.csv4j.util.CsvFormats;
+
+/**
+ * An index of the byte offset and line number of every Nth record of a UTF-8 CSV file, which
+ * allows a {@link Utf8CsvReader} to {@link Utf8CsvReader#seekToRecord(long) seek} to any record by
+ * parsing at most N - 1 records instead of the whole file before it. Indexes are typically built
+ * once, {@link #write(Path) written} to a sidecar file next to the CSV file, and
+ * {@link #read(Path) read} back whenever the file is opened.
+ */
+public final class CsvIndex {
+  public static final int DEFAULT_INTERVAL = 1024;
+
+  /**
+   * The first four bytes of every index file, "CSVI"
+   */
+  private static final int MAGIC = 0x43535649;
+
+  /**
+   * Version 2 added the format characters
+   */
+  private static final int VERSION = 2;
+
+  public static CsvIndex build(Path file) throws IOException {
+    return build(CsvFormats.CSV, file, DEFAULT_INTERVAL);
+  }
+
+  /**
+   * Builds an index of the given file by scanning all of its records. Fields are scanned but not
+   * decoded.
+   * 
+   * @param interval the number of records between index entries
+   * @throws IllegalArgumentException if the file has a BOM other than the UTF-8 BOM
+   */
+  public static CsvIndex build(CsvFormat format, Path file, int interval) throws IOException {
+    if (interval < 1)
+      throw new IllegalArgumentException("interval must be positive");
+
+    byte[] bom = Utf8CsvReader.detectBom(file);
+    if (bom != null && !Arrays.equals(bom, Boms.UTF_8))
+      throw new IllegalArgumentException("only UTF-8 files can be indexed");
+
+    Utf8CsvParser parser = new Utf8CsvParser(format);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      LineCountingByteStream in = LineCountingByteStream.map(channel, bom != null ? bom.length : 0,
+          size, LineCountingByteStream.DEFAULT_WINDOW_SIZE);
+      in.setLazyLinenums(true);
+
+      long[] offsets = new long[16];
+      int[] linenums = new int[16];
+      int entries = 0;
+      long records = 0L;
+      while (in.peek() != -1) {
+        if (records % interval == 0L) {
+          if (entries == offsets.length) {
+            offsets = Arrays.copyOf(offsets, 2 * entries);
+            linenums = Arrays.copyOf(linenums, 2 * entries);
+          }
+          offsets[entries] = in.offset();
+          linenums[entries] = in.linenum();
+          entries = entries + 1;
+        }
+        parser.skipRecord(in);
+        records = records + 1L;
+      }
+
+      return new CsvIndex(format, interval, size, records, Arrays.copyOf(offsets, entries),
+          Arrays.copyOf(linenums, entries));
+    }
+  }
+
+  public static CsvIndex read(Path indexFile) throws IOException {
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(indexFile))) {
+      return read(in);
+    }
+  }
+
+  /**
+   * Reads an index in the format written by {@link #write(OutputStream)}. Exactly the bytes of the
+   * index are read, one at a time, so the stream is left just past the index, and callers should
+   * buffer unbuffered streams. The stream is not closed.
+   * 
+   * @throws IOException if the stream does not contain an index
+   */
+  public static CsvIndex read(InputStream in) throws IOException {
+    DataInputStream data = new DataInputStream(in);
+    if (data.readInt() != MAGIC)
+      throw new IOException("not a CSV index");
+    if (data.readUnsignedByte() != VERSION)
+      throw new IOException("unsupported CSV index version");
+
+    CsvFormat format;
+    try {
+      format = CsvFormat.of(data.readChar(), data.readChar(), data.readChar());
+    } catch (IllegalArgumentException e) {
+      throw new IOException("malformed CSV index", e);
+    }
+    int interval = (int) readVarLong(data);
+    long size = readVarLong(data);
+    long records = readVarLong(data);
+    int entries = (int) readVarLong(data);
+
+    long[] offsets = new long[entries];
+    int[] linenums = new int[entries];
+    long offset = 0L;
+    int linenum = 0;
+    for (int i = 0; i < entries; i++) {
+      offset = offset + readVarLong(data);
+      linenum = linenum + (int) readVarLong(data);
+      offsets[i] = offset;
+      linenums[i] = linenum;
+    }
+
+    return new CsvIndex(format, interval, size, records, offsets, linenums);
+  }
+
+  private final CsvFormat format;
+  private final int interval;
+  private final long size;
+  private final long records;
+  private final long[] offsets;
+  private final int[] linenums;
+
+  private CsvIndex(CsvFormat format, int interval, long size, long records, long[] offsets,
+      int[] linenums) {
+    this.format = format;
+    this.interval = interval;
+    this.size = size;
+    this.records = records;
+    this.offsets = offsets;
+    this.linenums = linenums;
+  }
+
+  public void write(Path indexFile) throws IOException {
+    try (OutputStream out = Files.newOutputStream(indexFile)) {
+      write(out);
+    }
+  }
+
+  /**
+   * Writes this index to the given stream. Offsets and line numbers are stored as variable-length
+   * deltas, so each entry typically takes only a few bytes. The stream is not closed.
+   */
+  public void write(OutputStream out) throws IOException {
+    DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+    data.writeInt(MAGIC);
+    data.writeByte(VERSION);
+    data.writeChar(format.getQuoteChar());
+    data.writeChar(format.getEscapeChar());
+    data.writeChar(format.getColumnSeparatorChar());
+    writeVarLong(data, interval);
+    writeVarLong(data, size);
+    writeVarLong(data, records);
+    writeVarLong(data, offsets.length);
+    for (int i = 0; i < offsets.length; i++) {
+      writeVarLong(data, i == 0 ? offsets[i] : offsets[i] - offsets[i - 1]);
+      writeVarLong(data, i == 0 ? linenums[i] : linenums[i] - linenums[i - 1]);
+    }
+    data.flush();
+  }
+
+  /**
+   * @return the format the indexed file was scanned with, which readers must share to use this
+   *         index
+   */
+  public CsvFormat getFormat() {
+    return format;
+  }
+
+  /**
+   * @return the number of records between index entries
+   */
+  public int getInterval() {
+    return interval;
+  }
+
+  /**
+   * @return the size of the indexed file in bytes
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * @return the number of records in the indexed file
+   */
+  public long getRecordCount() {
+    return records;
+  }
+
+  /**
+   * @return the number of entries in this index
+   */
+  /* default */ int entries() {
+    return offsets.length;
+  }
+
+  /**
+   * @return the byte offset of the start of record {@code entry * interval}
+   */
+  /* default */ long offset(int entry) {
+    return offsets[entry];
+  }
+
+  /**
+   * @return the line number of the start of record {@code entry * interval}
+   */
+  /* default */ int linenum(int entry) {
+    return linenums[entry];
+  }
+
+  private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0L) {
+      out.writeByte((int) (value & 0x7FL) | 0x80);
+      value = value >>> 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  private static long readVarLong(DataInputStream in) throws IOException {
+    long result = 0L;
+    for (int shift = 0; shift < 64; shift = shift + 7) {
+      int b = in.readUnsignedByte();
+      result = result | ((long) (b & 0x7F) << shift);
+      if ((b & 0x80) == 0)
+        return result;
+    }
+    throw new IOException("malformed CSV index");
+  }
+}
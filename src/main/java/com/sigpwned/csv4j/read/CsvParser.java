@@ -21,20 +21,34 @@ package com.sigpwned.csv4j.read;
 
 import static java.util.Objects.requireNonNull;
 import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.List;
 import com.sigpwned.csv4j.CsvField;
 import com.sigpwned.csv4j.CsvFormat;
 import com.sigpwned.csv4j.CsvRecord;
+import com.sigpwned.csv4j.MutableCsvRecord;
 
 /**
  * Parses well-formatted records from a character stream in CSV format
  */
 public class CsvParser {
   private final CsvFormat format;
+  private final CsvStringCache cache;
 
   public CsvParser(CsvFormat format) {
+    this(format, null);
+  }
+
+  /**
+   * Creates a parser that shares the text of repeated field values using the given cache. Since
+   * the cache is not thread-safe, neither is the parser.
+   * 
+   * @param cache the cache to use, or {@code null} to create a new string for every field
+   */
+  public CsvParser(CsvFormat format, CsvStringCache cache) {
     this.format = requireNonNull(format);
+    this.cache = cache;
   }
 
   public CsvRecord parseRecord(LineCountingCharStream in) throws IOException {
@@ -42,56 +56,292 @@ public class CsvParser {
 
     int linenum = in.linenum();
 
-    result.add(parseField(in));
+    result.add(parseField(in, 0));
     while (attempt(in, getFormat().getColumnSeparatorChar())) {
-      result.add(parseField(in));
+      result.add(parseField(in, result.size()));
     }
 
-    // We should be at the end of a record here. That means two things: newline, or EOF.
+    endRecord(in, linenum);
+
+    return CsvRecord.of(result);
+  }
+
+  /**
+   * Parses the next record, keeping only the columns selected by the given projection. Unselected
+   * fields are scanned past, honoring quotes and escapes, but never materialized.
+   * 
+   * @throws IllegalArgumentException if the projection is not resolved
+   */
+  public CsvRecord parseRecord(LineCountingCharStream in, CsvProjection projection)
+      throws IOException {
+    if (!projection.isResolved())
+      throw new IllegalArgumentException("projection is not resolved");
+
+    CsvField[] result = new CsvField[projection.size()];
+
+    int linenum = in.linenum();
+
+    int column = 0;
+    do {
+      boolean quoted = attempt(in, getFormat().getQuoteChar());
+      int length = quoted ? scanQuotedField(in) : scanUnquotedField(in);
+      int slot = projection.slot(column);
+      if (slot != -1)
+        result[slot] = new CsvField(quoted, text(column, in.buffer(), in.markPosition(), length));
+      in.unmark();
+      column = column + 1;
+    } while (attempt(in, getFormat().getColumnSeparatorChar()));
+
+    endRecord(in, linenum);
+
+    // This record was too short to contain some of the selected columns.
+    for (int i = 0; i < result.length; i++)
+      if (result[i] == null)
+        result[i] = new CsvField(false, "");
+
+    return CsvRecord.of(result);
+  }
+
+  /**
+   * Parses the next record into the given record, replacing its contents. Once the given record's
+   * buffers have grown to fit the widest row, this method allocates nothing.
+   */
+  public void parseRecord(LineCountingCharStream in, MutableCsvRecord record) throws IOException {
+    record.clear();
+
+    int linenum = in.linenum();
+
+    do {
+      boolean quoted = attempt(in, getFormat().getQuoteChar());
+      int length = quoted ? scanQuotedField(in) : scanUnquotedField(in);
+      record.addField(quoted, in.buffer(), in.markPosition(), length);
+      in.unmark();
+    } while (attempt(in, getFormat().getColumnSeparatorChar()));
+
+    endRecord(in, linenum);
+  }
+
+  /**
+   * Parses the next record into the given record, keeping only the columns selected by the given
+   * projection, and replacing its contents. Unselected fields are scanned past but never copied.
+   * Once the given record's buffers have grown to fit the widest row, this method allocates
+   * nothing.
+   * 
+   * @throws IllegalArgumentException if the projection is not resolved
+   */
+  public void parseRecord(LineCountingCharStream in, CsvProjection projection,
+      MutableCsvRecord record) throws IOException {
+    if (!projection.isResolved())
+      throw new IllegalArgumentException("projection is not resolved");
+
+    // Selected columns the record is too short to contain stay empty.
+    record.reset(projection.size());
+
+    int linenum = in.linenum();
+
+    int column = 0;
+    do {
+      boolean quoted = attempt(in, getFormat().getQuoteChar());
+      int length = quoted ? scanQuotedField(in) : scanUnquotedField(in);
+      int slot = projection.slot(column);
+      if (slot != -1)
+        record.setField(slot, quoted, in.buffer(), in.markPosition(), length);
+      in.unmark();
+      column = column + 1;
+    } while (attempt(in, getFormat().getColumnSeparatorChar()));
+
+    endRecord(in, linenum);
+  }
+
+  /**
+   * Parses all the records in the given character stream, pushing each one to the given handler as
+   * a sequence of events. No record or field objects are created, so handlers that only need to
+   * look at field text run at scanning speed. The stream is not closed.
+   */
+  public void parse(Reader source, CsvHandler handler) throws IOException {
+    parse(new LineCountingCharStream(source), handler);
+  }
+
+  /**
+   * Parses all the remaining records in the given stream, pushing each one to the given handler.
+   * 
+   * @see #parse(Reader, CsvHandler)
+   */
+  public void parse(LineCountingCharStream in, CsvHandler handler) throws IOException {
+    while (in.peek() != -1)
+      parseRecord(in, handler);
+  }
+
+  /**
+   * Parses the next record in the given stream, pushing it to the given handler.
+   * 
+   * @see #parse(Reader, CsvHandler)
+   */
+  public void parseRecord(LineCountingCharStream in, CsvHandler handler) throws IOException {
+    int linenum = in.linenum();
+
+    handler.startRecord(linenum);
+    do {
+      boolean quoted = attempt(in, getFormat().getQuoteChar());
+      int length = quoted ? scanQuotedField(in) : scanUnquotedField(in);
+      handler.field(in.buffer(), in.markPosition(), length, quoted);
+      in.unmark();
+    } while (attempt(in, getFormat().getColumnSeparatorChar()));
+
+    endRecord(in, linenum);
+
+    handler.endRecord();
+  }
+
+  private CsvField parseField(LineCountingCharStream in, int column) throws IOException {
+    boolean quoted = attempt(in, getFormat().getQuoteChar());
+
+    int length = quoted ? scanQuotedField(in) : scanUnquotedField(in);
+
+    CsvField result = new CsvField(quoted, text(column, in.buffer(), in.markPosition(), length));
+
+    in.unmark();
+
+    return result;
+  }
+
+  private String text(int column, char[] buf, int off, int len) {
+    if (cache == null)
+      return new String(buf, off, len);
+    return cache.get(column, buf, off, len);
+  }
+
+  /**
+   * We should be at the end of a record here. That means two things: newline, or EOF.
+   */
+  private void endRecord(LineCountingCharStream in, int linenum) throws IOException {
     if (peek1(in) == -1) {
       // Groovy. EOF is a fine end to a record.
     } else if (peek1(in) == '\r' || peek1(in) == '\n') {
       // Also groovy. Newline is a fine end to a record.
-      do {
-        in.read();
-      } while (peek1(in) == '\r' || peek1(in) == '\n');
+      skipNewlines(in);
     } else {
       throw new MalformedRecordException(linenum);
     }
+  }
 
-    return CsvRecord.of(result);
+  /**
+   * Scans the text of an unquoted field, which runs until the next column separator, newline, or
+   * EOF. On return, the field text starts at the stream's mark.
+   * 
+   * @return the length of the field text
+   */
+  private int scanUnquotedField(LineCountingCharStream in) throws IOException {
+    final char separator = getFormat().getColumnSeparatorChar();
+
+    in.mark();
+    do {
+      final char[] buf = in.buffer();
+      final int limit = in.limit();
+
+      int p = in.position();
+      while (p < limit) {
+        char ch = buf[p];
+        if (ch == separator || ch == '\r' || ch == '\n') {
+          in.position(p);
+          return p - in.markPosition();
+        }
+        p = p + 1;
+      }
+
+      in.position(p);
+    } while (in.fill());
+
+    return in.position() - in.markPosition();
   }
 
-  private CsvField parseField(LineCountingCharStream in) throws IOException {
-    if (attempt(in, -1)) {
-      // The very last field on the very last line is empty and unquoted.
-      return new CsvField(false, "");
-    }
+  /**
+   * Scans the text of a quoted field whose opening quote has already been consumed, up to and
+   * including the closing quote. Escaped quotes and escape characters are unescaped in place, so on
+   * return the field text starts at the stream's mark.
+   * 
+   * @return the length of the (unescaped) field text
+   */
+  private int scanQuotedField(LineCountingCharStream in) throws IOException {
+    final char quote = getFormat().getQuoteChar();
+    final char escape = getFormat().getEscapeChar();
 
-    boolean quoted;
-    StringBuilder result = new StringBuilder();
-    if (attempt(in, getFormat().getQuoteChar())) {
-      quoted = true;
-      for (int ch = in.read(); ch != -1; ch = in.read()) {
-        if (ch == getFormat().getEscapeChar() && attempt(in, getFormat().getQuoteChar())) {
-          result.append(getFormat().getQuoteChar());
-        } else if (ch == getFormat().getQuoteChar()) {
+    in.mark();
+
+    int length = 0;
+    for (;;) {
+      final char[] buf = in.buffer();
+      final int limit = in.limit();
+      final int start = in.markPosition();
+
+      int p = in.position();
+      while (p < limit) {
+        char ch = buf[p];
+        if (ch != quote && ch != escape && ch != '\r' && ch != '\n') {
+          buf[start + length] = ch;
+          length = length + 1;
+          p = p + 1;
+          continue;
+        }
+
+        // The rest of these cases need one character of lookahead.
+        int next;
+        if (p + 1 < limit)
+          next = buf[p + 1];
+        else if (in.isEof())
+          next = -1;
+        else
           break;
+
+        if (ch == escape && (next == quote || next == escape)) {
+          buf[start + length] = (char) next;
+          length = length + 1;
+          p = p + 2;
+        } else if (ch == quote) {
+          in.position(p + 1);
+          return length;
+        } else if (ch == '\r' || ch == '\n') {
+          buf[start + length] = ch;
+          length = length + 1;
+          p = p + 1;
+          if (next != ch && (next == '\r' || next == '\n')) {
+            buf[start + length] = (char) next;
+            length = length + 1;
+            p = p + 1;
+          }
+          in.newline();
         } else {
-          result.append((char) (ch & 0xFFFF));
+          // This is an escape character that does not escape anything. Keep it.
+          buf[start + length] = ch;
+          length = length + 1;
+          p = p + 1;
         }
       }
-    } else {
-      quoted = false;
 
-      int ch = peek1(in);
-      while (ch != getFormat().getColumnSeparatorChar() && ch != '\r' && ch != '\n' && ch != -1) {
-        result.append((char) (in.read() & 0xFFFF));
-        ch = peek1(in);
+      in.position(p);
+      if (!in.fill() && in.position() == in.limit()) {
+        // The input ended inside the quoted field. We're lenient and take what we have.
+        return length;
       }
     }
+  }
 
-    return new CsvField(quoted, result.toString());
+  /**
+   * Consumes one or more consecutive newlines of any style.
+   */
+  private void skipNewlines(LineCountingCharStream in) throws IOException {
+    int ch = peek1(in);
+    while (ch == '\r' || ch == '\n') {
+      in.position(in.position() + 1);
+      int next = peek1(in);
+      if (next != ch && (next == '\r' || next == '\n')) {
+        // This is a \r\n or \n\r, which is one newline.
+        in.position(in.position() + 1);
+        next = peek1(in);
+      }
+      in.newline();
+      ch = next;
+    }
   }
 
   private int peek1(LineCountingCharStream r) throws IOException {
@@ -103,7 +353,7 @@ public class CsvParser {
 
     int buf = r.peek();
     if (buf == ch) {
-      r.read();
+      r.position(r.position() + 1);
       result = true;
     } else {
       result = false;
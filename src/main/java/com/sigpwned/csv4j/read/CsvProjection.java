@@ -0,0 +1,165 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.read;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import com.sigpwned.csv4j.CsvField;
+import com.sigpwned.csv4j.CsvHeader;
+import com.sigpwned.csv4j.CsvRecord;
+
+/**
+ * A selection of columns to read from each record, either by index or by name. The projected
+ * record contains only the selected columns, in the order they were selected. If a record is too
+ * short to contain a selected column, then that column is an empty, unquoted field.
+ * 
+ * A projection by name must be {@link #resolve(CsvRecord) resolved} against a header record before
+ * it can be used to parse records. {@link CsvReader} does this automatically using the first
+ * record.
+ */
+public final class CsvProjection {
+  public static CsvProjection ofIndexes(int... columns) {
+    Set<Integer> seen = new HashSet<>();
+    for (int column : columns) {
+      if (column < 0)
+        throw new IllegalArgumentException("columns must be non-negative");
+      if (!seen.add(column))
+        throw new IllegalArgumentException("duplicate column " + column);
+    }
+    return new CsvProjection(columns.clone(), null);
+  }
+
+  public static CsvProjection ofNames(String... names) {
+    Set<String> seen = new HashSet<>();
+    for (String name : names) {
+      if (!seen.add(requireNonNull(name)))
+        throw new IllegalArgumentException("duplicate column " + name);
+    }
+    return new CsvProjection(null, unmodifiableList(new ArrayList<>(Arrays.asList(names))));
+  }
+
+  /**
+   * The selected column indexes, in order, or {@code null} if this projection is unresolved.
+   */
+  private final int[] columns;
+
+  /**
+   * The selected column names, in order, or {@code null} if this projection is by index.
+   */
+  private final List<String> names;
+
+  /**
+   * Maps each column index in the input record to its index in the projected record, or -1 if the
+   * column is not selected. Columns past the end of this array are not selected.
+   */
+  private final int[] slots;
+
+  private CsvProjection(int[] columns, List<String> names) {
+    this.columns = columns;
+    this.names = names;
+    if (columns != null) {
+      int width = 0;
+      for (int column : columns)
+        width = Math.max(width, column + 1);
+      this.slots = new int[width];
+      Arrays.fill(slots, -1);
+      for (int i = 0; i < columns.length; i++)
+        slots[columns[i]] = i;
+    } else {
+      this.slots = null;
+    }
+  }
+
+  /**
+   * @return {@code true} if this projection selects columns by index, either because it was
+   *         created that way or because it has been resolved, or {@code false} otherwise
+   */
+  public boolean isResolved() {
+    return columns != null;
+  }
+
+  /**
+   * Resolves this projection's column names against the given header record. If this projection
+   * is already resolved, then it is returned as-is.
+   * 
+   * @throws MissingColumnException if the header has no column with one of the selected names
+   */
+  public CsvProjection resolve(CsvRecord header) throws MissingColumnException {
+    return resolve(CsvHeader.of(header));
+  }
+
+  /**
+   * Resolves this projection's column names against the given header. If this projection is
+   * already resolved, then it is returned as-is.
+   * 
+   * @throws MissingColumnException if the header has no column with one of the selected names
+   */
+  public CsvProjection resolve(CsvHeader header) throws MissingColumnException {
+    if (isResolved())
+      return this;
+
+    int[] resolved = new int[names.size()];
+    for (int i = 0; i < resolved.length; i++) {
+      int column = header.indexOf(names.get(i));
+      if (column == -1)
+        throw new MissingColumnException(names.get(i));
+      resolved[i] = column;
+    }
+
+    return new CsvProjection(resolved, names);
+  }
+
+  /**
+   * @return the projection of the given full record
+   * @throws IllegalStateException if this projection is not resolved
+   */
+  public CsvRecord apply(CsvRecord record) {
+    if (!isResolved())
+      throw new IllegalStateException("projection is not resolved");
+    CsvField[] result = new CsvField[columns.length];
+    for (int i = 0; i < columns.length; i++) {
+      if (columns[i] < record.size())
+        result[i] = record.getFields().get(columns[i]);
+      else
+        result[i] = new CsvField(false, "");
+    }
+    return CsvRecord.of(result);
+  }
+
+  /**
+   * @return the number of selected columns
+   */
+  public int size() {
+    return columns != null ? columns.length : names.size();
+  }
+
+  /**
+   * @return the index of the given input column in the projected record, or -1 if the column is
+   *         not selected
+   */
+  /* default */ int slot(int column) {
+    return column < slots.length ? slots[column] : -1;
+  }
+}
@@ -21,49 +21,103 @@ package com.sigpwned.csv4j.read;
 
 import static java.util.Objects.requireNonNull;
 import java.io.IOException;
-import java.io.PushbackReader;
 import java.io.Reader;
 import java.io.UncheckedIOException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
-import java.util.Optional;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import com.sigpwned.csv4j.CsvFormat;
+import com.sigpwned.csv4j.CsvHeader;
 import com.sigpwned.csv4j.CsvRecord;
+import com.sigpwned.csv4j.NamedCsvRecord;
+import com.sigpwned.csv4j.MutableCsvRecord;
 import com.sigpwned.csv4j.util.CsvFormats;
 
 /**
  * Reads well-formatted records from character stream in CSV format. This object is not thread-safe.
  * The user may interleave calls to {@link #readNext()}, {@link #iterator()} and its return values,
  * {@link #spliterator()} and its return values, and {@link #stream()} and its return values, and
- * the results will remain consistent.
+ * the results will remain consistent. To read and decode the input on a background thread while
+ * this reader parses, wrap it in a {@link ReadAheadReader}, preferably one created from the raw
+ * {@link java.io.InputStream}, so that closing it can unblock a stalled read.
  */
 public class CsvReader implements AutoCloseable, Iterable<CsvRecord> {
+  /**
+   * @deprecated The reader buffers its input internally, so no pushback is required.
+   */
+  @Deprecated
   public static final int MIN_PUSHBACK = 1;
 
   private final CsvParser parser;
   private final LineCountingCharStream in;
 
+  /**
+   * The columns to read, or {@code null} to read all columns. If this projection selects columns
+   * by name, then it is resolved against the first record.
+   */
+  private CsvProjection projection;
+
   public CsvReader(Reader in) {
     this(CsvFormats.CSV, in);
   }
 
   public CsvReader(CsvFormat format, Reader in) {
-    this(format, new PushbackReader(in, MIN_PUSHBACK));
-  }
-
-  public CsvReader(CsvFormat format, PushbackReader in) {
     this(new CsvParser(format), in);
   }
 
-  public CsvReader(CsvParser parser, PushbackReader in) {
+  public CsvReader(CsvParser parser, Reader in) {
     this.in = new LineCountingCharStream(requireNonNull(in));
     this.parser = requireNonNull(parser);
   }
 
+  public CsvReader(CsvFormat format, Reader in, CsvProjection projection) {
+    this(new CsvParser(format), in, projection);
+  }
+
+  /**
+   * Creates a reader that returns only the columns selected by the given projection. If the
+   * projection selects columns by name, then the first record is the header, which is also
+   * projected.
+   */
+  public CsvReader(CsvParser parser, Reader in, CsvProjection projection) {
+    this(parser, in);
+    this.projection = requireNonNull(projection);
+  }
+
+  /**
+   * The header that records are read under, or {@code null} if {@link #readHeader()} has not been
+   * called.
+   */
+  private CsvHeader header;
+
+  /**
+   * Reads the next record as the header of the remaining records. Afterwards, this reader returns
+   * each record as a {@link NamedCsvRecord} that shares the header, so its fields can be looked up
+   * by name without building a map per record.
+   * 
+   * @return the header, or {@code null} if there are no more records
+   * @throws IllegalStateException if the header has already been read
+   */
+  public CsvHeader readHeader() throws IOException {
+    if (header != null)
+      throw new IllegalStateException("header already read");
+    CsvRecord record = next();
+    if (record == null)
+      return null;
+    header = CsvHeader.of(record);
+    return header;
+  }
+
+  /**
+   * @return the header read by {@link #readHeader()}, or {@code null} if it has not been read
+   */
+  public CsvHeader getHeader() {
+    return header;
+  }
+
   /**
    * @return The next record in this reader's CSV data if it exists, or {@code null} otherwise.
    */
@@ -71,6 +125,38 @@ public class CsvReader implements AutoCloseable, Iterable<CsvRecord> {
     return next();
   }
 
+  /**
+   * Reads the next record in this reader's CSV data into the given record, replacing its contents.
+   * Once the given record's buffers have grown to fit the widest row, reading records this way
+   * allocates nothing per row, with or without a projection. There are two exceptions, which are
+   * read as a {@link CsvRecord} and copied: a record that was already parsed to answer
+   * {@link Iterator#hasNext()}, and the header that a projection by name is resolved against.
+   * 
+   * @return {@code true} if there was a next record, or {@code false} otherwise, in which case the
+   *         given record is unchanged
+   */
+  public boolean readInto(MutableCsvRecord record) throws IOException {
+    if (next != null || (projection != null && !projection.isResolved())) {
+      // Either we already parsed the next record for peek, or it's the header that resolves the
+      // projection. Either way, read it as a record.
+      CsvRecord peeked = next();
+      if (peeked == null)
+        return false;
+      record.set(peeked);
+      return true;
+    }
+
+    if (getIn().peek() == -1)
+      return false;
+
+    if (projection == null)
+      getParser().parseRecord(getIn(), record);
+    else
+      getParser().parseRecord(getIn(), projection, record);
+
+    return true;
+  }
+
   /**
    * @return An {@link Iterator} for each remaining row this reader's CSV data.
    * @throws UncheckedIOException in case of {@link IOException}
@@ -126,32 +212,6 @@ public class CsvReader implements AutoCloseable, Iterable<CsvRecord> {
     getIn().close();
   }
 
-  /**
-   * Basically an {@link Optional}. Used to avoid warnings source analysis warnings.
-   */
-  private static class OptionalRecord {
-    private static final OptionalRecord EMPTY = new OptionalRecord(null);
-
-    public static OptionalRecord empty() {
-      return EMPTY;
-    }
-
-    public static OptionalRecord ofNullable(CsvRecord value) {
-      return value != null ? new OptionalRecord(value) : EMPTY;
-    }
-
-    public final CsvRecord value;
-
-
-    public CsvRecord orElseNull() {
-      return value != null ? value : null;
-    }
-
-    private OptionalRecord(CsvRecord value) {
-      this.value = value;
-    }
-  }
-
   /**
    * If this value is {@code null}, then the next record is unknown. Otherwise, the next record (or
    * its absence) is contained in this value.
@@ -162,13 +222,28 @@ public class CsvReader implements AutoCloseable, Iterable<CsvRecord> {
     if (next == null) {
       if (getIn().peek() == -1) {
         next = OptionalRecord.empty();
+      } else if (projection == null) {
+        next = OptionalRecord.ofNullable(named(getParser().parseRecord(in)));
+      } else if (!projection.isResolved()) {
+        CsvRecord header = getParser().parseRecord(in);
+        projection = projection.resolve(header);
+        next = OptionalRecord.ofNullable(projection.apply(header));
       } else {
-        next = OptionalRecord.ofNullable(getParser().parseRecord(in));
+        next = OptionalRecord.ofNullable(named(getParser().parseRecord(in, projection)));
       }
     }
     return next.orElseNull();
   }
 
+  /**
+   * @return the given record under this reader's header, if it has one
+   */
+  private CsvRecord named(CsvRecord record) {
+    if (header == null || record == null)
+      return record;
+    return new NamedCsvRecord(header, record.getFields());
+  }
+
   private CsvRecord next() throws IOException {
     CsvRecord result = peek();
     next = null;
@@ -0,0 +1,211 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.read;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Deduplicates field text column by column, so that columns with few distinct values, e.g., country
+ * codes or status flags, share one {@link String} per value instead of holding a fresh copy for
+ * every record. Fields are looked up directly from the parser's buffer, so a hit allocates nothing.
+ * 
+ * Each column has a fixed-size, direct-mapped table of strings, so a new value simply replaces
+ * whatever value hashed to the same slot. Each column also keeps its hit rate. After every
+ * {@link #SAMPLE_SIZE} lookups, a column whose hit rate is below one half is assumed to have high
+ * cardinality, and is no longer cached. Fields longer than the maximum length are never cached.
+ * 
+ * This object is not thread-safe. Use one cache per parser, and use that parser from one thread.
+ */
+public final class CsvStringCache {
+  public static final int DEFAULT_CAPACITY = 256;
+
+  public static final int DEFAULT_MAX_LENGTH = 32;
+
+  /**
+   * The number of lookups between checks of each column's hit rate
+   */
+  /* default */ static final int SAMPLE_SIZE = 4096;
+
+  private static class Column {
+    public final String[] entries;
+    public int lookups;
+    public int hits;
+    public boolean disabled;
+
+    public Column(int capacity) {
+      this.entries = new String[capacity];
+    }
+  }
+
+  private final int capacity;
+  private final int maxLength;
+  private Column[] columns;
+
+  public CsvStringCache() {
+    this(DEFAULT_CAPACITY, DEFAULT_MAX_LENGTH);
+  }
+
+  /**
+   * @param capacity the maximum number of strings to cache per column, rounded up to a power of two
+   * @param maxLength the length of the longest field to cache
+   */
+  public CsvStringCache(int capacity, int maxLength) {
+    if (capacity < 1)
+      throw new IllegalArgumentException("capacity must be positive");
+    if (maxLength < 0)
+      throw new IllegalArgumentException("maxLength must not be negative");
+    int rounded = Integer.highestOneBit(capacity);
+    this.capacity = rounded == capacity ? rounded : 2 * rounded;
+    this.maxLength = maxLength;
+    this.columns = new Column[16];
+  }
+
+  /**
+   * @return the text of the given range of characters, which is shared with earlier fields of the
+   *         given column that have the same text if possible
+   */
+  public String get(int column, char[] buf, int off, int len) {
+    if (len == 0)
+      return "";
+
+    Column c = column(column, len);
+    if (c == null)
+      return new String(buf, off, len);
+
+    int h = 0;
+    for (int i = 0; i < len; i++)
+      h = 31 * h + buf[off + i];
+
+    int slot = slot(h);
+    String entry = c.entries[slot];
+    if (entry != null && entry.length() == len && entry.hashCode() == h) {
+      int i = 0;
+      while (i < len && entry.charAt(i) == buf[off + i])
+        i = i + 1;
+      if (i == len)
+        return hit(c, entry);
+    }
+
+    return miss(c, slot, new String(buf, off, len));
+  }
+
+  /**
+   * @return the text of the given range of the given stream's window, decoded as UTF-8, as above.
+   *         Only ASCII text is cached, since it is the only text whose bytes compare directly to
+   *         the characters of a cached string.
+   */
+  /* default */ String get(int column, LineCountingByteStream in, int off, int len) {
+    if (len == 0)
+      return "";
+
+    Column c = column(column, len);
+    if (c == null)
+      return in.decode(off, len);
+
+    ByteBuffer buf = in.buffer();
+    int h = 0;
+    for (int i = 0; i < len; i++) {
+      byte b = buf.get(off + i);
+      if (b < 0)
+        return in.decode(off, len);
+      h = 31 * h + b;
+    }
+
+    int slot = slot(h);
+    String entry = c.entries[slot];
+    if (entry != null && entry.length() == len && entry.hashCode() == h) {
+      int i = 0;
+      while (i < len && entry.charAt(i) == buf.get(off + i))
+        i = i + 1;
+      if (i == len)
+        return hit(c, entry);
+    }
+
+    return miss(c, slot, in.decode(off, len));
+  }
+
+  /**
+   * @return {@code true} if fields in the given column are still being cached, or {@code false}
+   *         otherwise
+   */
+  public boolean isEnabled(int column) {
+    return column >= columns.length || columns[column] == null || !columns[column].disabled;
+  }
+
+  /**
+   * Removes all cached strings and forgets all hit rates.
+   */
+  public void clear() {
+    Arrays.fill(columns, null);
+  }
+
+  /**
+   * @return the given column's cache, or {@code null} if a field of the given
+   *         length in the given column should not be cached
+   */
+  private Column column(int column, int len) {
+    if (len > maxLength)
+      return null;
+
+    if (column >= columns.length)
+      columns = Arrays.copyOf(columns, Math.max(column + 1, 2 * columns.length));
+
+    Column result = columns[column];
+    if (result == null)
+      result = columns[column] = new Column(capacity);
+    else if (result.disabled)
+      return null;
+
+    return result;
+  }
+
+  private String hit(Column c, String entry) {
+    c.lookups = c.lookups + 1;
+    c.hits = c.hits + 1;
+    sample(c);
+    return entry;
+  }
+
+  private String miss(Column c, int slot, String text) {
+    c.lookups = c.lookups + 1;
+    c.entries[slot] = text;
+    sample(c);
+    return text;
+  }
+
+  /**
+   * Checks the given column's hit rate once per sample, and stops caching it if it is too low.
+   */
+  private void sample(Column c) {
+    if (c.lookups < SAMPLE_SIZE)
+      return;
+    if (2 * c.hits < c.lookups) {
+      c.disabled = true;
+      Arrays.fill(c.entries, null);
+    }
+    c.lookups = 0;
+    c.hits = 0;
+  }
+
+  private int slot(int h) {
+    return (h ^ (h >>> 16)) & (capacity - 1);
+  }
+}
@@ -0,0 +1,451 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.read;
+
+import static java.util.Objects.requireNonNull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A byte stream that tracks line numbers. Bytes are read from the underlying {@link InputStream}
+ * or {@link ReadableByteChannel} in bulk into an internal window, or the window is mapped directly
+ * from a {@link FileChannel}, and {@link Utf8CsvParser} scans the window directly by index.
+ * Newlines are recognized exactly as in {@link LineCountingCharStream}.
+ */
+public class LineCountingByteStream implements AutoCloseable {
+  public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+  /**
+   * Creates a stream that maps the whole given file into memory in sliding windows of
+   * {@link #DEFAULT_WINDOW_SIZE} bytes.
+   */
+  public static LineCountingByteStream map(FileChannel file) throws IOException {
+    return map(file, 0L, file.size(), DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * Creates a stream that maps the given range of the given file into memory in sliding windows.
+   * Each window is mapped read-only and starts at the earliest byte the parser still needs, so
+   * files of any size can be read, and bytes are never copied out of the page cache except to
+   * decode field text. Windows grow as needed to hold fields larger than the window size. Closing
+   * the stream closes the file.
+   * 
+   * @param file the file to map
+   * @param start the offset of the first byte to read, inclusive
+   * @param end the offset of the last byte to read, exclusive
+   * @param windowSize the preferred size of each window
+   */
+  public static LineCountingByteStream map(FileChannel file, long start, long end, int windowSize) {
+    if (start < 0L)
+      throw new IllegalArgumentException("start must not be negative");
+    if (end < start)
+      throw new IllegalArgumentException("end must not be less than start");
+    if (windowSize < 1)
+      throw new IllegalArgumentException("windowSize must be positive");
+    return new LineCountingByteStream(requireNonNull(file), start, end, windowSize);
+  }
+
+  private final InputStream stream;
+  private final ReadableByteChannel channel;
+  private final FileChannel file;
+  private final long end;
+  private final int windowSize;
+  private ByteBuffer buffer;
+  private long offset;
+  private int position;
+  private int limit;
+  private int mark;
+  private boolean eof;
+  private int linenum;
+  private byte[] scratch;
+
+  /**
+   * If {@code true}, then newlines are counted in bulk when needed instead of as they are parsed.
+   */
+  private boolean lazy;
+
+  /**
+   * In lazy mode, the offset up to which newlines have been counted into {@link #linenum}
+   */
+  private long counted;
+
+  /**
+   * In lazy mode, the newline byte just before {@link #counted} if it could be the first byte of a
+   * two-byte newline, or -1 otherwise
+   */
+  private int pending;
+
+  /**
+   * The offset of the start of the current record
+   */
+  private long recordStart;
+
+  /**
+   * The line number of the start of the current record, or -1 if it has not been counted yet
+   */
+  private int recordLinenum;
+
+  public LineCountingByteStream(InputStream in) {
+    this(in, DEFAULT_BUFFER_SIZE);
+  }
+
+  public LineCountingByteStream(InputStream in, int bufferSize) {
+    this(requireNonNull(in), null, bufferSize);
+  }
+
+  public LineCountingByteStream(ReadableByteChannel in) {
+    this(in, DEFAULT_BUFFER_SIZE);
+  }
+
+  public LineCountingByteStream(ReadableByteChannel in, int bufferSize) {
+    this(null, requireNonNull(in), bufferSize);
+  }
+
+  private LineCountingByteStream(InputStream stream, ReadableByteChannel channel, int bufferSize) {
+    if (bufferSize < 1)
+      throw new IllegalArgumentException("bufferSize must be positive");
+    this.stream = stream;
+    this.channel = channel;
+    this.file = null;
+    this.end = -1L;
+    this.windowSize = -1;
+    this.buffer = ByteBuffer.allocate(bufferSize);
+    this.mark = -1;
+    this.pending = -1;
+  }
+
+  private LineCountingByteStream(FileChannel file, long start, long end, int windowSize) {
+    this.stream = null;
+    this.channel = null;
+    this.file = file;
+    this.end = end;
+    this.windowSize = windowSize;
+    this.buffer = ByteBuffer.allocate(0);
+    this.offset = start;
+    this.mark = -1;
+    this.pending = -1;
+  }
+
+  /**
+   * @return the next byte as an unsigned value, or -1 at EOF
+   */
+  public int peek() throws IOException {
+    if (position == limit && !fill())
+      return -1;
+    return buffer.get(position) & 0xFF;
+  }
+
+  /**
+   * The zero-indexed line number of the next byte to return. In lazy mode, this counts the newlines
+   * consumed since the last call.
+   */
+  public int linenum() {
+    if (lazy)
+      count(offset());
+    return linenum;
+  }
+
+  /**
+   * Sets whether this stream counts lines lazily. By default, the parser reports each newline as it
+   * consumes it. In lazy mode, the parser ignores newlines inside quoted fields, and this stream
+   * instead counts newlines in bulk, only when bytes leave the window or when a line number is
+   * requested. Line numbers are the same in both modes, but lazy mode keeps newline handling off
+   * the parser's hot path, which is worthwhile when line numbers are only needed to report errors.
+   * This should be called between records.
+   */
+  public void setLazyLinenums(boolean lazy) {
+    if (this.lazy)
+      count(offset());
+    this.lazy = lazy;
+    this.counted = offset();
+    this.pending = -1;
+  }
+
+  public boolean isLazyLinenums() {
+    return lazy;
+  }
+
+  /**
+   * The zero-indexed offset of the next byte to return, relative to the start of this stream.
+   */
+  public long offset() {
+    return offset + position;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (stream != null)
+      stream.close();
+    if (channel != null)
+      channel.close();
+    if (file != null)
+      file.close();
+  }
+
+  /**
+   * Moves a mapped stream to the given offset of its file, discarding the current window. The
+   * offset must be the start of a record, and the given line number must be the line number of that
+   * record, since the stream cannot count the lines it skips.
+   * 
+   * @throws IllegalStateException if this stream is not mapped
+   */
+  /* default */ void seek(long offset, int linenum) {
+    if (file == null)
+      throw new IllegalStateException("only mapped streams can seek");
+    if (offset < 0L || offset > end)
+      throw new IllegalArgumentException("offset out of range");
+    this.buffer = ByteBuffer.allocate(0);
+    this.offset = offset;
+    this.position = 0;
+    this.limit = 0;
+    this.mark = -1;
+    this.eof = false;
+    this.linenum = linenum;
+    this.counted = offset;
+    this.pending = -1;
+  }
+
+  /**
+   * Reads more bytes from the underlying source into the window. Bytes before the mark, if any, or
+   * else the current position are discarded to make room, and the window grows if there is no room
+   * to discard. Because the window may move, callers must re-read {@link #buffer()},
+   * {@link #position()}, {@link #limit()}, and {@link #markPosition()} after this call.
+   * 
+   * @return {@code true} if at least one byte was added to the window, or {@code false} if the
+   *         underlying source is exhausted
+   */
+  /* default */ boolean fill() throws IOException {
+    if (eof)
+      return false;
+
+    int keep = mark != -1 ? mark : position;
+    if (lazy)
+      count(offset + keep);
+    if (file != null)
+      return slide(keep);
+
+    if (keep > 0) {
+      ((Buffer) buffer).position(keep);
+      ((Buffer) buffer).limit(limit);
+      buffer.compact();
+      ((Buffer) buffer).clear();
+      offset = offset + keep;
+      limit = limit - keep;
+      position = position - keep;
+      if (mark != -1)
+        mark = mark - keep;
+    }
+    if (limit == buffer.capacity()) {
+      ByteBuffer grown = ByteBuffer.allocate(buffer.capacity() * 2);
+      ((Buffer) buffer).position(0);
+      ((Buffer) buffer).limit(limit);
+      grown.put(buffer);
+      ((Buffer) grown).clear();
+      buffer = grown;
+    }
+
+    int nread;
+    do {
+      if (stream != null) {
+        nread = stream.read(buffer.array(), buffer.arrayOffset() + limit,
+            buffer.capacity() - limit);
+      } else {
+        ((Buffer) buffer).position(limit);
+        nread = channel.read(buffer);
+        ((Buffer) buffer).clear();
+      }
+    } while (nread == 0);
+    if (nread == -1) {
+      eof = true;
+      return false;
+    }
+
+    limit = limit + nread;
+
+    return true;
+  }
+
+  /**
+   * Maps a new window of the file that starts at the given position of the current window and
+   * extends past its limit.
+   */
+  private boolean slide(int keep) throws IOException {
+    long start = offset + keep;
+    int retained = limit - keep;
+    if (end - start <= retained) {
+      eof = true;
+      return false;
+    }
+
+    long size = Math.min(end - start, Math.max((long) windowSize, 2L * retained));
+    if (size > Integer.MAX_VALUE) {
+      if (retained == Integer.MAX_VALUE)
+        throw new IOException("field is too large to map");
+      size = Integer.MAX_VALUE;
+    }
+
+    buffer = file.map(MapMode.READ_ONLY, start, size);
+    offset = start;
+    limit = (int) size;
+    position = position - keep;
+    if (mark != -1)
+      mark = mark - keep;
+
+    return true;
+  }
+
+  /**
+   * @return {@code true} if the underlying source is exhausted, so the window contains all
+   *         remaining bytes
+   */
+  /* default */ boolean isEof() {
+    return eof;
+  }
+
+  /**
+   * The window. Callers must only use absolute get and put operations on this buffer.
+   */
+  /* default */ ByteBuffer buffer() {
+    return buffer;
+  }
+
+  /* default */ int position() {
+    return position;
+  }
+
+  /**
+   * Moves the current position within the window. No line accounting is performed, so callers
+   * that skip over newlines must call {@link #newline()} themselves.
+   */
+  /* default */ void position(int position) {
+    this.position = position;
+  }
+
+  /* default */ int limit() {
+    return limit;
+  }
+
+  /**
+   * Records that one newline, in any of the four styles we recognize, has been consumed.
+   */
+  /* default */ void newline() {
+    if (!lazy)
+      linenum = linenum + 1;
+  }
+
+  /**
+   * Records that the current record starts at the current position.
+   */
+  /* default */ void startRecord() {
+    recordStart = offset();
+    recordLinenum = lazy ? -1 : linenum;
+  }
+
+  /**
+   * @return the line number of the start of the current record
+   */
+  /* default */ int recordLinenum() {
+    if (recordLinenum == -1)
+      count(recordStart);
+    return recordLinenum;
+  }
+
+  /**
+   * Counts the newlines before the given offset, which must be in the window, using the same rules
+   * as the parser. Along the way, notes the line number of the start of the current record.
+   */
+  private void count(long to) {
+    if (recordLinenum == -1 && recordStart <= to) {
+      countTo(recordStart);
+      recordLinenum = linenum;
+    }
+    countTo(to);
+  }
+
+  private void countTo(long to) {
+    int p = (int) (counted - offset);
+    int end = (int) (to - offset);
+    while (p < end) {
+      int b = buffer.get(p);
+      if (b == '\r' || b == '\n') {
+        if (pending != -1 && pending != b) {
+          // This is the second byte of a \r\n or \n\r, which is one newline.
+          pending = -1;
+        } else {
+          linenum = linenum + 1;
+          pending = b;
+        }
+      } else {
+        pending = -1;
+      }
+      p = p + 1;
+    }
+    if (to > counted)
+      counted = to;
+  }
+
+  /**
+   * Pins the window at the current position so that {@link #fill()} keeps all bytes from here
+   * onwards. Used to keep the text of the field being scanned contiguous.
+   */
+  /* default */ void mark() {
+    mark = position;
+  }
+
+  /* default */ int markPosition() {
+    return mark;
+  }
+
+  /* default */ void unmark() {
+    mark = -1;
+  }
+
+  /**
+   * Decodes the given range of the window as UTF-8.
+   */
+  /* default */ String decode(int start, int length) {
+    if (buffer.hasArray())
+      return new String(buffer.array(), buffer.arrayOffset() + start, length,
+          StandardCharsets.UTF_8);
+
+    byte[] bytes = scratch(length);
+    ((Buffer) buffer).position(start);
+    buffer.get(bytes, 0, length);
+
+    return new String(bytes, 0, length, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return a reusable array of at least the given length
+   */
+  /* default */ byte[] scratch(int length) {
+    if (scratch == null || scratch.length < length)
+      scratch = new byte[Math.max(length, 64)];
+    return scratch;
+  }
+}
@@ -21,15 +21,35 @@ package com.sigpwned.csv4j.read;
 
 import static java.util.Objects.requireNonNull;
 import java.io.IOException;
-import java.io.PushbackReader;
+import java.io.Reader;
+import java.util.Arrays;
 
+/**
+ * A character stream that tracks line numbers. Characters are read from the underlying
+ * {@link Reader} in bulk into an internal window, which {@link CsvParser} scans directly by index.
+ */
 public class LineCountingCharStream implements AutoCloseable {
-  private final PushbackReader delegate;
+  public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  private final Reader delegate;
+  private char[] buffer;
+  private int position;
+  private int limit;
+  private int mark;
+  private boolean eof;
   private int newlineLookback;
   private int linenum;
 
-  public LineCountingCharStream(PushbackReader delegate) {
+  public LineCountingCharStream(Reader delegate) {
+    this(delegate, DEFAULT_BUFFER_SIZE);
+  }
+
+  public LineCountingCharStream(Reader delegate, int bufferSize) {
+    if (bufferSize < 1)
+      throw new IllegalArgumentException("bufferSize must be positive");
     this.delegate = requireNonNull(delegate);
+    this.buffer = new char[bufferSize];
+    this.mark = -1;
   }
 
   /**
@@ -41,9 +61,10 @@ public class LineCountingCharStream implements AutoCloseable {
    * @throws IOException
    */
   /* default */ int read() throws IOException {
-    int currentRead = getDelegate().read();
+    int currentRead = peek();
     if (currentRead == -1)
       return currentRead;
+    position = position + 1;
 
     // Should we update our line number?
     if (currentRead == '\r' || currentRead == '\n') {
@@ -82,13 +103,9 @@ public class LineCountingCharStream implements AutoCloseable {
   }
 
   public int peek() throws IOException {
-    int first = getDelegate().read();
-    if (first == -1)
+    if (position == limit && !fill())
       return -1;
-
-    getDelegate().unread(first);
-
-    return first;
+    return buffer[position];
   }
 
   /**
@@ -98,29 +115,102 @@ public class LineCountingCharStream implements AutoCloseable {
     return linenum;
   }
 
-  // public int peek2() throws IOException {
-  // int first = getDelegate().read();
-  // if (first == -1)
-  // return -1;
-  //
-  // int second = getDelegate().read();
-  // if (second == -1) {
-  // getDelegate().unread(first);
-  // return -1;
-  // }
-  //
-  // getDelegate().unread(second);
-  // getDelegate().unread(first);
-  //
-  // return second;
-  // }
-
   @Override
   public void close() throws IOException {
     getDelegate().close();
   }
 
-  private PushbackReader getDelegate() {
+  /**
+   * Reads more characters from the underlying reader into the window. Characters before the mark,
+   * if any, or else the current position are discarded to make room, and the window grows if there
+   * is no room to discard. Because the window may move, callers must re-read {@link #buffer()},
+   * {@link #position()}, {@link #limit()}, and {@link #markPosition()} after this call.
+   * 
+   * @return {@code true} if at least one character was added to the window, or {@code false} if
+   *         the underlying reader is exhausted
+   */
+  /* default */ boolean fill() throws IOException {
+    if (eof)
+      return false;
+
+    int keep = mark != -1 ? mark : position;
+    if (keep > 0) {
+      System.arraycopy(buffer, keep, buffer, 0, limit - keep);
+      limit = limit - keep;
+      position = position - keep;
+      if (mark != -1)
+        mark = mark - keep;
+    }
+    if (limit == buffer.length)
+      buffer = Arrays.copyOf(buffer, buffer.length * 2);
+
+    int nread;
+    do {
+      nread = getDelegate().read(buffer, limit, buffer.length - limit);
+    } while (nread == 0);
+    if (nread == -1) {
+      eof = true;
+      return false;
+    }
+
+    limit = limit + nread;
+
+    return true;
+  }
+
+  /**
+   * @return {@code true} if the underlying reader is exhausted, so the window contains all
+   *         remaining characters
+   */
+  /* default */ boolean isEof() {
+    return eof;
+  }
+
+  /* default */ char[] buffer() {
+    return buffer;
+  }
+
+  /* default */ int position() {
+    return position;
+  }
+
+  /**
+   * Moves the current position within the window. No line accounting is performed, so callers
+   * that skip over newlines must call {@link #newline()} themselves.
+   */
+  /* default */ void position(int position) {
+    this.position = position;
+  }
+
+  /* default */ int limit() {
+    return limit;
+  }
+
+  /**
+   * Records that one newline, in any of the four styles we recognize, has been consumed.
+   */
+  /* default */ void newline() {
+    linenum = linenum + 1;
+    newlineLookback = 0;
+  }
+
+  /**
+   * Pins the window at the current position so that {@link #fill()} keeps all characters from here
+   * onwards. Used to keep the text of the field being scanned contiguous.
+   */
+  /* default */ void mark() {
+    mark = position;
+  }
+
+  /* default */ int markPosition() {
+    return mark;
+  }
+
+  /* default */ void unmark() {
+    mark = -1;
+  }
+
+  private Reader getDelegate() {
     return delegate;
   }
 }
@@ -0,0 +1,39 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.read;
+
+import com.sigpwned.csv4j.CsvException;
+
+@SuppressWarnings("serial")
+public class MissingColumnException extends CsvException {
+  /**
+   * The name of the column that does not appear in the header.
+   */
+  private final String name;
+
+  public MissingColumnException(String name) {
+    super("CSV header has no column named " + name);
+    this.name = name;
+  }
+
+  public String getName() {
+    return name;
+  }
+}
@@ -0,0 +1,49 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.read;
+
+import java.util.Optional;
+import com.sigpwned.csv4j.CsvRecord;
+
+/**
+ * Basically an {@link Optional}. Used to avoid warnings source analysis warnings.
+ */
+/* default */ final class OptionalRecord {
+  private static final OptionalRecord EMPTY = new OptionalRecord(null);
+
+  public static OptionalRecord empty() {
+    return EMPTY;
+  }
+
+  public static OptionalRecord ofNullable(CsvRecord value) {
+    return value != null ? new OptionalRecord(value) : EMPTY;
+  }
+
+  public final CsvRecord value;
+
+
+  public CsvRecord orElseNull() {
+    return value != null ? value : null;
+  }
+
+  private OptionalRecord(CsvRecord value) {
+    this.value = value;
+  }
+}
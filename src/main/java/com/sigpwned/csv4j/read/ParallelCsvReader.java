@@ -0,0 +1,431 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.read;
+
+import static java.util.Objects.requireNonNull;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import com.sigpwned.csv4j.CsvFormat;
+import com.sigpwned.csv4j.CsvRecord;
+import com.sigpwned.csv4j.util.Boms;
+import com.sigpwned.csv4j.util.CsvFormats;
+
+/**
+ * <p>
+ * Reads well-formatted records from a UTF-8 file in CSV format in parallel. The file is cut into
+ * byte ranges that each start on a record boundary, and each range is parsed independently with
+ * {@link Utf8CsvParser}. The {@link #spliterator()} splits along those ranges and preserves
+ * encounter order, so {@link #stream()} runs on the fork-join pool of the terminal operation and
+ * produces records in file order.
+ * </p>
+ *
+ * <p>
+ * Because quoted fields may contain newlines, a range boundary cannot simply be placed after the
+ * next newline. Instead, the file is first cut into fixed-size chunks, and for each chunk we
+ * compute in parallel which parser state the chunk ends in for every state it could start in.
+ * Composing those results from the start of the file gives the exact parser state at the start of
+ * each chunk, from which the first record boundary in the chunk is found with a short scan.
+ * </p>
+ *
+ * <p>
+ * Line numbers in {@link MalformedRecordException} are computed on demand, so they cost nothing for
+ * well-formed files. A file that starts with a UTF-16 byte order mark (BOM) is read sequentially
+ * with {@link Utf8CsvReader} instead.
+ * </p>
+ */
+public class ParallelCsvReader implements AutoCloseable {
+  public static final long DEFAULT_CHUNK_SIZE = 4L * 1024L * 1024L;
+
+  private final Utf8CsvParser parser;
+  private final FileChannel file;
+  private final int windowSize;
+
+  /**
+   * The range boundaries. The ranges are {@code [bounds[i], bounds[i+1])}.
+   */
+  private final long[] bounds;
+
+  private final Utf8CsvReader fallback;
+
+  public ParallelCsvReader(Path file) throws IOException {
+    this(CsvFormats.CSV, file);
+  }
+
+  public ParallelCsvReader(CsvFormat format, Path file) throws IOException {
+    this(format, file, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * @param format the format of the file
+   * @param file the file to read
+   * @param pool the pool on which to find range boundaries
+   * @param chunkSize the approximate size of each range
+   */
+  public ParallelCsvReader(CsvFormat format, Path file, ForkJoinPool pool, long chunkSize)
+      throws IOException {
+    requireNonNull(pool);
+    if (chunkSize < 1L)
+      throw new IllegalArgumentException("chunkSize must be positive");
+
+    byte[] bom = Utf8CsvReader.detectBom(file);
+    if (bom == null || Arrays.equals(bom, Boms.UTF_8)) {
+      this.parser = new Utf8CsvParser(format);
+      this.file = FileChannel.open(file, StandardOpenOption.READ);
+      this.windowSize = LineCountingByteStream.DEFAULT_WINDOW_SIZE;
+      this.fallback = null;
+      try {
+        this.bounds = new Boundaries(format).find(bom != null ? bom.length : 0, pool, chunkSize);
+      } catch (IOException | RuntimeException e) {
+        this.file.close();
+        throw e;
+      }
+    } else {
+      this.parser = null;
+      this.file = null;
+      this.windowSize = 0;
+      this.bounds = null;
+      this.fallback = new Utf8CsvReader(format, file);
+    }
+  }
+
+  /**
+   * @return A splittable, ordered {@link Spliterator} of all the records in this reader's file.
+   * @throws UncheckedIOException in case of {@link IOException}
+   */
+  public Spliterator<CsvRecord> spliterator() {
+    if (fallback != null)
+      return fallback.spliterator();
+    return new RangeSpliterator(0, bounds.length - 1);
+  }
+
+  /**
+   * @return A parallel {@link Stream} of all the records in this reader's file.
+   * @throws UncheckedIOException in case of {@link IOException}
+   */
+  public Stream<CsvRecord> stream() {
+    return StreamSupport.stream(spliterator(), true);
+  }
+
+  public CsvFormat getFormat() {
+    return fallback != null ? fallback.getFormat() : parser.getFormat();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (fallback != null)
+      fallback.close();
+    else
+      file.close();
+  }
+
+  /**
+   * Parses the records in the ranges {@code [lo, hi)}.
+   */
+  private class RangeSpliterator implements Spliterator<CsvRecord> {
+    private int lo;
+    private final int hi;
+
+    /**
+     * The stream for range {@code lo}, if we have started parsing it
+     */
+    private LineCountingByteStream in;
+
+    public RangeSpliterator(int lo, int hi) {
+      this.lo = lo;
+      this.hi = hi;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super CsvRecord> action) {
+      try {
+        while (lo < hi) {
+          if (in == null) {
+            in = LineCountingByteStream.map(file, bounds[lo], bounds[lo + 1], windowSize);
+            in.setLazyLinenums(true);
+          }
+          if (in.peek() != -1) {
+            action.accept(parseRecord(in, bounds[lo]));
+            return true;
+          }
+          // Note that we do not close the stream, since that would close the file.
+          in = null;
+          lo = lo + 1;
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to read next row", e);
+      }
+      return false;
+    }
+
+    @Override
+    public Spliterator<CsvRecord> trySplit() {
+      if (hi - lo < 2)
+        return null;
+
+      // We must hand out a prefix, so any range in progress goes with it.
+      int mid = (lo + hi) >>> 1;
+      RangeSpliterator result = new RangeSpliterator(lo, mid);
+      result.in = in;
+      in = null;
+      lo = mid;
+
+      return result;
+    }
+
+    @Override
+    public long estimateSize() {
+      return bounds[hi] - (in != null ? in.offset() : bounds[lo]);
+    }
+
+    @Override
+    public int characteristics() {
+      return Spliterator.IMMUTABLE | Spliterator.NONNULL | Spliterator.ORDERED;
+    }
+  }
+
+  private CsvRecord parseRecord(LineCountingByteStream in, long start) throws IOException {
+    try {
+      return parser.parseRecord(in);
+    } catch (MalformedRecordException e) {
+      // The stream counts lines from the start of its range, not the file.
+      throw new MalformedRecordException(countLines(start) + e.getLinenum());
+    }
+  }
+
+  /**
+   * Counts the newlines before the given offset, which must not fall inside a newline.
+   */
+  private int countLines(long end) throws IOException {
+    LineCountingByteStream in = LineCountingByteStream.map(file, 0L, end, windowSize);
+
+    int result = 0;
+    for (int b = in.peek(); b != -1; b = in.peek()) {
+      in.position(in.position() + 1);
+      if (b == '\r' || b == '\n') {
+        int next = in.peek();
+        if (next != b && (next == '\r' || next == '\n'))
+          in.position(in.position() + 1);
+        result = result + 1;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Finds record boundaries using a state machine that tracks just enough of the parser's state to
+   * know where records end.
+   */
+  private class Boundaries {
+    private static final int C_OTHER = 0;
+    private static final int C_QUOTE = 1;
+    private static final int C_ESCAPE = 2;
+    private static final int C_SEPARATOR = 3;
+    private static final int C_NEWLINE = 4;
+    private static final int CLASSES = 5;
+
+    /**
+     * At the start of a field
+     */
+    private static final int S_START = 0;
+
+    /**
+     * Inside an unquoted field
+     */
+    private static final int S_UNQUOTED = 1;
+
+    /**
+     * Inside a quoted field
+     */
+    private static final int S_QUOTED = 2;
+
+    /**
+     * Inside a quoted field, just after a quote that either closes the field or, if the escape
+     * character is the quote character, escapes the next quote
+     */
+    private static final int S_QUOTE_PENDING = 3;
+
+    /**
+     * After the closing quote of a quoted field
+     */
+    private static final int S_CLOSED = 4;
+
+    /**
+     * Inside a quoted field, just after an escape character that is not the quote character
+     */
+    private static final int S_ESCAPE_PENDING = 5;
+
+    private static final int STATES = 6;
+
+    private final byte[] classes;
+    private final byte[] transitions;
+
+    public Boundaries(CsvFormat format) {
+      boolean quoteEscapes = format.getEscapeChar() == format.getQuoteChar();
+
+      classes = new byte[256];
+      classes['\r'] = C_NEWLINE;
+      classes['\n'] = C_NEWLINE;
+      classes[format.getColumnSeparatorChar()] = C_SEPARATOR;
+      classes[format.getEscapeChar()] = C_ESCAPE;
+      classes[format.getQuoteChar()] = C_QUOTE;
+
+      transitions = new byte[STATES * CLASSES];
+      set(S_START, S_UNQUOTED, S_QUOTED, S_UNQUOTED, S_START, S_START);
+      set(S_UNQUOTED, S_UNQUOTED, S_UNQUOTED, S_UNQUOTED, S_START, S_START);
+      set(S_QUOTED, S_QUOTED, quoteEscapes ? S_QUOTE_PENDING : S_CLOSED, S_ESCAPE_PENDING, S_QUOTED,
+          S_QUOTED);
+      set(S_QUOTE_PENDING, S_CLOSED, S_QUOTED, S_CLOSED, S_START, S_START);
+      set(S_CLOSED, S_CLOSED, S_CLOSED, S_CLOSED, S_START, S_START);
+      set(S_ESCAPE_PENDING, S_QUOTED, S_QUOTED, S_QUOTED, S_QUOTED, S_QUOTED);
+    }
+
+    private void set(int state, int other, int quote, int escape, int separator, int newline) {
+      transitions[state * CLASSES + C_OTHER] = (byte) other;
+      transitions[state * CLASSES + C_QUOTE] = (byte) quote;
+      transitions[state * CLASSES + C_ESCAPE] = (byte) escape;
+      transitions[state * CLASSES + C_SEPARATOR] = (byte) separator;
+      transitions[state * CLASSES + C_NEWLINE] = (byte) newline;
+    }
+
+    /**
+     * @return the range boundaries, starting with {@code start} and ending with the file size
+     */
+    public long[] find(long start, ForkJoinPool pool, long chunkSize) throws IOException {
+      final long size = file.size();
+      final long n = Math.max(1L, (size - start + chunkSize - 1) / chunkSize);
+      if (n > Integer.MAX_VALUE)
+        throw new IllegalArgumentException("chunkSize is too small");
+      final int chunks = (int) n;
+
+      // First, for each chunk, work out which state it ends in for each state it could start in.
+      final byte[][] ends = invoke(pool, () -> IntStream.range(0, chunks).parallel().mapToObj(i -> {
+        try {
+          return run(start + i * chunkSize, Math.min(size, start + (i + 1) * chunkSize));
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }).toArray(byte[][]::new));
+
+      // Next, compose those results to get the actual state at the start of each chunk.
+      final int[] states = new int[chunks];
+      states[0] = S_START;
+      for (int i = 1; i < chunks; i++)
+        states[i] = ends[i - 1][states[i - 1]];
+
+      // Finally, find the first record boundary at or after the start of each chunk.
+      final int scanSize = (int) Math.min(chunkSize, windowSize);
+      final long[] starts =
+          invoke(pool, () -> IntStream.range(1, chunks).parallel().mapToLong(i -> {
+            try {
+              return next(start + i * chunkSize, states[i], scanSize);
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          }).toArray());
+
+      return LongStream
+          .concat(LongStream.of(start),
+              LongStream.concat(Arrays.stream(starts).filter(x -> x != -1L), LongStream.of(size)))
+          .distinct().toArray();
+    }
+
+    /**
+     * @return for each state the chunk could start in, the state it ends in
+     */
+    private byte[] run(long from, long to) throws IOException {
+      final MappedByteBuffer buf = file.map(MapMode.READ_ONLY, from, to - from);
+      final int length = (int) (to - from);
+
+      int s0 = S_START, s1 = S_UNQUOTED, s2 = S_QUOTED, s3 = S_QUOTE_PENDING, s4 = S_CLOSED,
+          s5 = S_ESCAPE_PENDING;
+      for (int i = 0; i < length; i++) {
+        int c = classes[buf.get(i) & 0xFF];
+        s0 = transitions[s0 * CLASSES + c];
+        s1 = transitions[s1 * CLASSES + c];
+        s2 = transitions[s2 * CLASSES + c];
+        s3 = transitions[s3 * CLASSES + c];
+        s4 = transitions[s4 * CLASSES + c];
+        s5 = transitions[s5 * CLASSES + c];
+      }
+
+      return new byte[] {(byte) s0, (byte) s1, (byte) s2, (byte) s3, (byte) s4, (byte) s5};
+    }
+
+    /**
+     * @return the offset of the first record that starts after the given offset, which has the
+     *         given state, or -1 if there is no such record
+     */
+    private long next(long from, int state, int scanSize) throws IOException {
+      LineCountingByteStream in = LineCountingByteStream.map(file, from, file.size(), scanSize);
+
+      boolean ended = false;
+      for (int b = in.peek(); b != -1; b = in.peek()) {
+        int c = classes[b];
+        if (ended) {
+          if (c != C_NEWLINE)
+            return in.offset();
+        } else if (c == C_NEWLINE && state != S_QUOTED && state != S_ESCAPE_PENDING) {
+          // This newline ends a record. The next record starts after the last newline in this run.
+          ended = true;
+        }
+        state = transitions[state * CLASSES + c];
+        in.position(in.position() + 1);
+      }
+
+      return -1L;
+    }
+  }
+
+  private static <T> T invoke(ForkJoinPool pool, Callable<T> task)
+      throws IOException {
+    try {
+      return pool.submit(task).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof UncheckedIOException)
+        throw ((UncheckedIOException) cause).getCause();
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException) cause;
+      if (cause instanceof Error)
+        throw (Error) cause;
+      throw new IOException(cause);
+    }
+  }
+}
@@ -0,0 +1,309 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.read;
+
+import static java.util.Objects.requireNonNull;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Reads ahead of the caller on a background thread, so that waiting for the underlying stream and
+ * decoding its bytes happen concurrently with whatever the caller does with the characters, e.g.,
+ * parsing them with a {@link CsvReader}. The background thread fills a fixed ring of chunks, so
+ * memory use is bounded. A chunk is handed to the caller as soon as the underlying stream has no
+ * more characters ready, so characters are never held back waiting for a chunk to fill. When all
+ * chunks are full, the background thread waits for the caller, and when all chunks are empty, the
+ * caller waits for the background thread. If the underlying stream fails, then the caller receives
+ * the failure after all the characters read before it. This object is not thread-safe: it must be
+ * read from one thread at a time.
+ */
+public class ReadAheadReader extends Reader {
+  public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+  public static final int DEFAULT_CHUNK_COUNT = 4;
+
+  /**
+   * How long {@link #close()} waits for the underlying stream to close and the background thread to
+   * stop
+   */
+  private static final long CLOSE_TIMEOUT_MILLIS = 1000L;
+
+  private static final class Chunk {
+    public final char[] buf;
+    public int length;
+
+    public Chunk(int size) {
+      this.buf = new char[size];
+    }
+  }
+
+  /**
+   * Tells the caller that the underlying stream is exhausted or has failed
+   */
+  private static final Chunk EOF = new Chunk(0);
+
+  private final Reader in;
+
+  /**
+   * The stream to close to unblock the background thread, which is the byte stream under
+   * {@link #in} if we created it, or {@link #in} itself otherwise
+   */
+  private final Closeable source;
+
+  private final BlockingQueue<Chunk> free;
+  private final BlockingQueue<Chunk> full;
+  private final Thread thread;
+  private volatile Throwable failure;
+  private volatile boolean stopped;
+  private boolean closed;
+  private Chunk current;
+  private int position;
+
+  /**
+   * Decodes the given stream on the background thread.
+   */
+  public ReadAheadReader(InputStream in, Charset charset) {
+    this(new InputStreamReader(requireNonNull(in), requireNonNull(charset)), in,
+        DEFAULT_CHUNK_SIZE, DEFAULT_CHUNK_COUNT);
+  }
+
+  public ReadAheadReader(Reader in) {
+    this(in, DEFAULT_CHUNK_SIZE, DEFAULT_CHUNK_COUNT);
+  }
+
+  /**
+   * @param chunkSize the number of characters in each chunk
+   * @param chunkCount the number of chunks, which must be at least 2 for the background thread to
+   *        read while the caller consumes
+   */
+  public ReadAheadReader(Reader in, int chunkSize, int chunkCount) {
+    this(in, in, chunkSize, chunkCount);
+  }
+
+  private ReadAheadReader(Reader in, Closeable source, int chunkSize, int chunkCount) {
+    if (chunkSize < 1)
+      throw new IllegalArgumentException("chunkSize must be positive");
+    if (chunkCount < 1)
+      throw new IllegalArgumentException("chunkCount must be positive");
+    this.in = requireNonNull(in);
+    this.source = requireNonNull(source);
+    this.free = new ArrayBlockingQueue<>(chunkCount);
+    this.full = new ArrayBlockingQueue<>(chunkCount + 1);
+    for (int i = 0; i < chunkCount; i++)
+      free.add(new Chunk(chunkSize));
+    this.thread = new Thread(this::fill, "csv4j-read-ahead");
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  @Override
+  public int read(char[] cbuf, int off, int len) throws IOException {
+    checkClosed();
+    if (len == 0)
+      return 0;
+    if (!advance())
+      return eof();
+
+    int n = Math.min(len, current.length - position);
+    System.arraycopy(current.buf, position, cbuf, off, n);
+    position = position + n;
+
+    return n;
+  }
+
+  @Override
+  public int read() throws IOException {
+    checkClosed();
+    if (!advance())
+      return eof();
+    char result = current.buf[position];
+    position = position + 1;
+    return result;
+  }
+
+  /**
+   * @return {@code true} if characters are available without waiting for the background thread
+   */
+  @Override
+  public boolean ready() throws IOException {
+    checkClosed();
+    return (current != null && current != EOF && position < current.length) || !full.isEmpty();
+  }
+
+  /**
+   * Stops the background thread and closes the underlying stream, returning after a short wait at
+   * most. If this reader was created from an {@link InputStream}, then that stream is closed first,
+   * which unblocks a read that is waiting on a stalled socket or mount, if the stream allows that.
+   * If this reader was created from a {@link Reader}, then closing that reader typically waits for
+   * a pending read to return, so it is closed on another thread, and a reader stalled in a read
+   * stays open until that read returns. Either way, if the background thread still hasn't stopped
+   * after a short wait, then it is abandoned, and it stops as soon as its read returns.
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed)
+      return;
+    closed = true;
+    stopped = true;
+    thread.interrupt();
+    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLOSE_TIMEOUT_MILLIS);
+    try {
+      if (source != in)
+        source.close();
+      else
+        closeInBackground(deadline);
+    } finally {
+      try {
+        long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remaining > 0L)
+          thread.join(remaining);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      // Closing the decoder would wait for the background thread to finish its read.
+      if (source != in && !thread.isAlive())
+        in.close();
+    }
+  }
+
+  /**
+   * Closes the underlying reader on another thread, waiting for it until the given deadline.
+   * Readers like {@link InputStreamReader} lock the same object in {@code close} that the
+   * background thread holds while it is blocked in {@code read}.
+   */
+  private void closeInBackground(long deadline) throws IOException {
+    final FutureTask<Void> task = new FutureTask<>(() -> {
+      in.close();
+      return null;
+    });
+    final Thread closer = new Thread(task, "csv4j-read-ahead-close");
+    closer.setDaemon(true);
+    closer.start();
+
+    try {
+      task.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      // The reader is stuck in a read. It closes as soon as that read returns.
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException)
+        throw (IOException) cause;
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException) cause;
+      if (cause instanceof Error)
+        throw (Error) cause;
+      throw new IOException(cause);
+    }
+  }
+
+  private void checkClosed() throws IOException {
+    if (closed)
+      throw new IOException("Stream closed");
+  }
+
+  /**
+   * Makes sure the current chunk has characters left, taking the next full chunk if necessary.
+   * 
+   * @return {@code true} if the current chunk has characters left, or {@code false} if the
+   *         underlying stream is exhausted or has failed
+   */
+  private boolean advance() throws IOException {
+    if (current != null && position < current.length)
+      return true;
+    if (current == EOF)
+      return false;
+
+    if (current != null)
+      free.add(current);
+    try {
+      current = full.take();
+    } catch (InterruptedException e) {
+      current = null;
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    }
+    position = 0;
+
+    return current != EOF;
+  }
+
+  private int eof() throws IOException {
+    Throwable problem = failure;
+    if (problem != null)
+      throw new IOException("asynchronous read failed", problem);
+    return -1;
+  }
+
+  /**
+   * The body of the background thread, which reads from the underlying stream into free chunks
+   * and passes them to the caller until the stream is exhausted, fails, or this reader is closed.
+   */
+  private void fill() {
+    try {
+      while (!stopped) {
+        Chunk chunk = free.take();
+
+        // Wait for some characters, and then keep filling the chunk only as long as more
+        // characters are available without blocking, so that we never hold back characters the
+        // caller could be parsing. If the stream fails partway, then the caller still gets what we
+        // read before the failure.
+        int length = 0;
+        int n = 0;
+        Throwable problem = null;
+        try {
+          while (length < chunk.buf.length && !stopped && (length == 0 || in.ready())
+              && (n = in.read(chunk.buf, length, chunk.buf.length - length)) != -1)
+            length = length + n;
+        } catch (IOException | RuntimeException e) {
+          problem = e;
+        }
+
+        if (length > 0) {
+          chunk.length = length;
+          full.put(chunk);
+        }
+        if (problem != null) {
+          failure = problem;
+          break;
+        }
+        if (n == -1)
+          break;
+      }
+    } catch (InterruptedException e) {
+      // Someone wants us gone. So be it.
+      return;
+    }
+    full.add(EOF);
+  }
+}
@@ -0,0 +1,293 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.read;
+
+import static java.util.Objects.requireNonNull;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import com.sigpwned.csv4j.CsvField;
+import com.sigpwned.csv4j.CsvFormat;
+import com.sigpwned.csv4j.CsvRecord;
+
+/**
+ * Parses well-formatted records from a UTF-8 byte stream in CSV format. Field boundaries are found
+ * on the raw bytes, which is safe because the format characters must be ASCII, and ASCII bytes
+ * never occur inside multi-byte UTF-8 sequences. Field text is only decoded when the field is
+ * materialized.
+ */
+public class Utf8CsvParser {
+  private final CsvFormat format;
+  private final byte quote;
+  private final byte escape;
+  private final byte separator;
+  private final ByteScanner unquoted;
+  private final ByteScanner quoted;
+  private final ByteScanner quotedLazy;
+  private final CsvStringCache cache;
+
+  public Utf8CsvParser(CsvFormat format) {
+    this(format, null);
+  }
+
+  /**
+   * Creates a parser that shares the text of repeated field values using the given cache. Since
+   * the cache is not thread-safe, neither is the parser.
+   * 
+   * @param cache the cache to use, or {@code null} to create a new string for every field
+   */
+  public Utf8CsvParser(CsvFormat format, CsvStringCache cache) {
+    this.format = requireNonNull(format);
+    this.cache = cache;
+    if (format.getQuoteChar() > 0x7F || format.getEscapeChar() > 0x7F
+        || format.getColumnSeparatorChar() > 0x7F)
+      throw new IllegalArgumentException("format characters must be ASCII");
+    this.quote = (byte) format.getQuoteChar();
+    this.escape = (byte) format.getEscapeChar();
+    this.separator = (byte) format.getColumnSeparatorChar();
+    this.unquoted = new ByteScanner(separator, (byte) '\r', (byte) '\n', (byte) '\n');
+    this.quoted = new ByteScanner(quote, escape, (byte) '\r', (byte) '\n');
+    this.quotedLazy = new ByteScanner(quote, escape, escape, escape);
+  }
+
+  public CsvRecord parseRecord(LineCountingByteStream in) throws IOException {
+    List<CsvField> result = new ArrayList<>();
+
+    in.startRecord();
+
+    result.add(parseField(in, 0));
+    while (attempt(in, separator)) {
+      result.add(parseField(in, result.size()));
+    }
+
+    endRecord(in);
+
+    return CsvRecord.of(result);
+  }
+
+  /**
+   * Scans past the next record without decoding any of its fields.
+   */
+  /* default */ void skipRecord(LineCountingByteStream in) throws IOException {
+    in.startRecord();
+
+    do {
+      if (attempt(in, quote))
+        scanQuotedField(in);
+      else
+        scanUnquotedField(in);
+      in.unmark();
+    } while (attempt(in, separator));
+
+    endRecord(in);
+  }
+
+  private CsvField parseField(LineCountingByteStream in, int column) throws IOException {
+    boolean quoted = attempt(in, quote);
+
+    String text;
+    if (quoted) {
+      int scanned = scanQuotedField(in);
+      if (scanned >= 0)
+        text = decode(in, column, in.markPosition(), scanned);
+      else
+        text = decodeEscaped(in, in.markPosition(), ~scanned);
+    } else {
+      int length = scanUnquotedField(in);
+      text = decode(in, column, in.markPosition(), length);
+    }
+
+    in.unmark();
+
+    return new CsvField(quoted, text);
+  }
+
+  /**
+   * We should be at the end of a record here. That means two things: newline, or EOF.
+   */
+  private void endRecord(LineCountingByteStream in) throws IOException {
+    if (peek1(in) == -1) {
+      // Groovy. EOF is a fine end to a record.
+    } else if (peek1(in) == '\r' || peek1(in) == '\n') {
+      // Also groovy. Newline is a fine end to a record.
+      skipNewlines(in);
+    } else {
+      throw new MalformedRecordException(in.recordLinenum());
+    }
+  }
+
+  /**
+   * Scans the bytes of an unquoted field, which runs until the next column separator, newline, or
+   * EOF. On return, the field bytes start at the stream's mark.
+   * 
+   * @return the length of the field bytes
+   */
+  private int scanUnquotedField(LineCountingByteStream in) throws IOException {
+    in.mark();
+    do {
+      final ByteBuffer buf = in.buffer();
+      final int limit = in.limit();
+
+      int p = unquoted.scan(buf, in.position(), limit);
+      if (p < limit) {
+        in.position(p);
+        return p - in.markPosition();
+      }
+
+      in.position(p);
+    } while (in.fill());
+
+    return in.position() - in.markPosition();
+  }
+
+  /**
+   * Scans the bytes of a quoted field whose opening quote has already been consumed, up to and
+   * including the closing quote. The window is never modified, since it may be read-only, so
+   * escaped quotes and escape bytes are left as-is. On return, the raw field bytes start at the
+   * stream's mark.
+   * 
+   * @return the length of the raw field bytes if the field contains no escapes, or the bitwise
+   *         complement of that length if it does
+   */
+  private int scanQuotedField(LineCountingByteStream in) throws IOException {
+    in.mark();
+
+    // In lazy mode, the stream counts newlines itself, so there's no need to stop at them.
+    final ByteScanner scanner = in.isLazyLinenums() ? quotedLazy : quoted;
+
+    boolean escaped = false;
+    for (;;) {
+      final ByteBuffer buf = in.buffer();
+      final int limit = in.limit();
+
+      int p = in.position();
+      while ((p = scanner.scan(buf, p, limit)) < limit) {
+        byte b = buf.get(p);
+
+        // The rest of these cases need one byte of lookahead.
+        int next;
+        if (p + 1 < limit)
+          next = buf.get(p + 1);
+        else if (in.isEof())
+          next = -1;
+        else
+          break;
+
+        if (b == escape && (next == quote || next == escape)) {
+          escaped = true;
+          p = p + 2;
+        } else if (b == quote) {
+          int length = p - in.markPosition();
+          in.position(p + 1);
+          return escaped ? ~length : length;
+        } else if (b == '\r' || b == '\n') {
+          p = p + 1;
+          if (next != b && (next == '\r' || next == '\n'))
+            p = p + 1;
+          in.newline();
+        } else {
+          // This is an escape byte that does not escape anything. Keep it.
+          p = p + 1;
+        }
+      }
+
+      in.position(p);
+      if (!in.fill() && in.position() == in.limit()) {
+        // The input ended inside the quoted field. We're lenient and take what we have.
+        int length = in.position() - in.markPosition();
+        return escaped ? ~length : length;
+      }
+    }
+  }
+
+  private String decode(LineCountingByteStream in, int column, int start, int length) {
+    if (cache == null)
+      return in.decode(start, length);
+    return cache.get(column, in, start, length);
+  }
+
+  /**
+   * Decodes the given range of raw quoted field bytes, dropping the escape byte from each escaped
+   * quote or escape byte.
+   */
+  private String decodeEscaped(LineCountingByteStream in, int start, int length) {
+    final ByteBuffer buf = in.buffer();
+    final byte[] scratch = in.scratch(length);
+
+    int n = 0;
+    for (int i = 0; i < length; i++) {
+      byte b = buf.get(start + i);
+      if (b == escape && i + 1 < length
+          && (buf.get(start + i + 1) == quote || buf.get(start + i + 1) == escape)) {
+        b = buf.get(start + i + 1);
+        i = i + 1;
+      }
+      scratch[n] = b;
+      n = n + 1;
+    }
+
+    return new String(scratch, 0, n, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Consumes one or more consecutive newlines of any style.
+   */
+  private void skipNewlines(LineCountingByteStream in) throws IOException {
+    int b = peek1(in);
+    while (b == '\r' || b == '\n') {
+      in.position(in.position() + 1);
+      int next = peek1(in);
+      if (next != b && (next == '\r' || next == '\n')) {
+        // This is a \r\n or \n\r, which is one newline.
+        in.position(in.position() + 1);
+        next = peek1(in);
+      }
+      in.newline();
+      b = next;
+    }
+  }
+
+  private int peek1(LineCountingByteStream r) throws IOException {
+    return r.peek();
+  }
+
+  private boolean attempt(LineCountingByteStream r, byte b) throws IOException {
+    boolean result;
+
+    int buf = r.peek();
+    if (buf == (b & 0xFF)) {
+      r.position(r.position() + 1);
+      result = true;
+    } else {
+      result = false;
+    }
+
+    return result;
+  }
+
+  /**
+   * @return the format
+   */
+  public CsvFormat getFormat() {
+    return format;
+  }
+}
@@ -0,0 +1,331 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.read;
+
+import static java.util.Objects.requireNonNull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import com.sigpwned.csv4j.CsvFormat;
+import com.sigpwned.csv4j.CsvHeader;
+import com.sigpwned.csv4j.CsvRecord;
+import com.sigpwned.csv4j.NamedCsvRecord;
+import com.sigpwned.csv4j.util.Boms;
+import com.sigpwned.csv4j.util.CsvFormats;
+
+/**
+ * Reads well-formatted records from a UTF-8 byte stream in CSV format without decoding the stream
+ * into characters first. Field boundaries are found on the raw bytes, and only field text is
+ * decoded. A leading UTF-8 byte order mark (BOM) is discarded. If the stream starts with a UTF-16
+ * BOM instead, then the stream is decoded and parsed by a {@link CsvReader}. This object is not
+ * thread-safe. The user may interleave calls to {@link #readNext()}, {@link #iterator()} and its
+ * return values, {@link #spliterator()} and its return values, and {@link #stream()} and its return
+ * values, and the results will remain consistent.
+ */
+public class Utf8CsvReader implements AutoCloseable, Iterable<CsvRecord> {
+  private final Utf8CsvParser parser;
+  private final LineCountingByteStream in;
+  private final CsvReader fallback;
+  private final CsvIndex index;
+
+  public Utf8CsvReader(InputStream in) throws IOException {
+    this(CsvFormats.CSV, in);
+  }
+
+  public Utf8CsvReader(CsvFormat format, InputStream in) throws IOException {
+    this(format, new PushbackInputStream(requireNonNull(in), Boms.MAX_BOM_LENGTH));
+  }
+
+  public Utf8CsvReader(CsvFormat format, ReadableByteChannel in) throws IOException {
+    this(format, Channels.newInputStream(requireNonNull(in)));
+  }
+
+  private Utf8CsvReader(CsvFormat format, PushbackInputStream in) throws IOException {
+    Charset charset = Boms.detectCharsetFromBom(in).orElse(StandardCharsets.UTF_8);
+    if (charset.equals(StandardCharsets.UTF_8)) {
+      this.parser = new Utf8CsvParser(format);
+      this.in = new LineCountingByteStream(in);
+      this.in.setLazyLinenums(true);
+      this.fallback = null;
+    } else {
+      this.parser = null;
+      this.in = null;
+      this.fallback = new CsvReader(format, new InputStreamReader(in, charset));
+    }
+    this.index = null;
+  }
+
+  public Utf8CsvReader(Path file) throws IOException {
+    this(CsvFormats.CSV, file);
+  }
+
+  /**
+   * Reads the given file by mapping it into memory in sliding windows, so records are parsed
+   * directly out of the page cache. Lines are counted lazily, since they are only needed to report
+   * malformed records.
+   * 
+   * @see LineCountingByteStream#map(FileChannel)
+   */
+  public Utf8CsvReader(CsvFormat format, Path file) throws IOException {
+    this(format, file, null);
+  }
+
+  /**
+   * Reads the given file as above, using the given index of the file to support
+   * {@link #seekToRecord(long)}.
+   * 
+   * @throws IllegalArgumentException if the index does not match the file, or was built with a
+   *         different format
+   * @see CsvIndex#build(CsvFormat, Path, int)
+   */
+  public Utf8CsvReader(CsvFormat format, Path file, CsvIndex index) throws IOException {
+    byte[] bom = detectBom(file);
+    if (bom == null || Arrays.equals(bom, Boms.UTF_8)) {
+      FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+      try {
+        if (index != null && index.getSize() != channel.size())
+          throw new IllegalArgumentException("index does not match file");
+        if (index != null && !index.getFormat().equals(format))
+          throw new IllegalArgumentException("index does not match format");
+        this.parser = new Utf8CsvParser(format);
+        this.in = LineCountingByteStream.map(channel, bom != null ? bom.length : 0,
+            channel.size(), LineCountingByteStream.DEFAULT_WINDOW_SIZE);
+        this.in.setLazyLinenums(true);
+        this.fallback = null;
+      } catch (IOException | RuntimeException e) {
+        channel.close();
+        throw e;
+      }
+    } else {
+      if (index != null)
+        throw new IllegalArgumentException("only UTF-8 files can be indexed");
+      this.parser = null;
+      this.in = null;
+      this.fallback = new CsvReader(format,
+          Boms.decodeFromBom(Files.newInputStream(file), StandardCharsets.UTF_8));
+    }
+    this.index = index;
+  }
+
+  /**
+   * Reads the given stream as-is. No BOM detection is performed.
+   */
+  public Utf8CsvReader(Utf8CsvParser parser, LineCountingByteStream in) {
+    this.parser = requireNonNull(parser);
+    this.in = requireNonNull(in);
+    this.fallback = null;
+    this.index = null;
+  }
+
+  /**
+   * Moves this reader so that the next record it reads is the given zero-indexed record of the
+   * file. The reader jumps to the nearest indexed record at or before the given record, and then
+   * skips the records in between without decoding them. If the file has fewer records, then this
+   * reader is left at the end of the file.
+   * 
+   * @throws IllegalStateException if this reader was not created with an index
+   */
+  public void seekToRecord(long n) throws IOException {
+    if (index == null)
+      throw new IllegalStateException("reader has no index");
+    if (n < 0L)
+      throw new IllegalArgumentException("n must not be negative");
+
+    next = null;
+
+    if (index.entries() == 0) {
+      getIn().seek(index.getSize(), 0);
+      return;
+    }
+
+    int entry = (int) Math.min(n / index.getInterval(), index.entries() - 1);
+    getIn().seek(index.offset(entry), index.linenum(entry));
+    for (long i = (long) entry * index.getInterval(); i < n && getIn().peek() != -1; i++)
+      getParser().skipRecord(getIn());
+  }
+
+  /**
+   * The header that records are read under, or {@code null} if {@link #readHeader()} has not been
+   * called.
+   */
+  private CsvHeader header;
+
+  /**
+   * Reads the next record as the header of the remaining records. Afterwards, this reader returns
+   * each record as a {@link NamedCsvRecord} that shares the header, so its fields can be looked up
+   * by name without building a map per record.
+   * 
+   * @return the header, or {@code null} if there are no more records
+   * @throws IllegalStateException if the header has already been read
+   */
+  public CsvHeader readHeader() throws IOException {
+    if (header != null)
+      throw new IllegalStateException("header already read");
+    CsvRecord record = next();
+    if (record == null)
+      return null;
+    header = CsvHeader.of(record);
+    return header;
+  }
+
+  /**
+   * @return the header read by {@link #readHeader()}, or {@code null} if it has not been read
+   */
+  public CsvHeader getHeader() {
+    return header;
+  }
+
+  /**
+   * @return The next record in this reader's CSV data if it exists, or {@code null} otherwise.
+   */
+  public CsvRecord readNext() throws IOException {
+    return next();
+  }
+
+  /**
+   * @return An {@link Iterator} for each remaining row this reader's CSV data.
+   * @throws UncheckedIOException in case of {@link IOException}
+   */
+  public Iterator<CsvRecord> iterator() {
+    return new Iterator<CsvRecord>() {
+      @Override
+      public boolean hasNext() {
+        CsvRecord peeked;
+        try {
+          peeked = Utf8CsvReader.this.peek();
+        } catch (IOException e) {
+          throw new UncheckedIOException("Failed to peek next row", e);
+        }
+        return peeked != null;
+      }
+
+      @Override
+      public CsvRecord next() {
+        CsvRecord result;
+        try {
+          result = Utf8CsvReader.this.next();
+        } catch (IOException e) {
+          throw new UncheckedIOException("Failed to read next row", e);
+        }
+        if (result == null)
+          throw new NoSuchElementException();
+        return result;
+      }
+    };
+  }
+
+  @Override
+  public Spliterator<CsvRecord> spliterator() {
+    return Spliterators.spliteratorUnknownSize(iterator(),
+        Spliterator.IMMUTABLE | Spliterator.NONNULL | Spliterator.ORDERED);
+  }
+
+  /**
+   * @return A {@link Stream} of the remaining rows in this reader's CSV data.
+   * @throws UncheckedIOException in case of {@link IOException}
+   */
+  public Stream<CsvRecord> stream() {
+    return StreamSupport.stream(spliterator(), false);
+  }
+
+  public CsvFormat getFormat() {
+    return fallback != null ? fallback.getFormat() : getParser().getFormat();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (fallback != null)
+      fallback.close();
+    else
+      getIn().close();
+  }
+
+  /**
+   * If this value is {@code null}, then the next record is unknown. Otherwise, the next record (or
+   * its absence) is contained in this value.
+   */
+  private OptionalRecord next;
+
+  private CsvRecord peek() throws IOException {
+    if (next == null) {
+      if (fallback != null) {
+        next = OptionalRecord.ofNullable(named(fallback.readNext()));
+      } else if (getIn().peek() == -1) {
+        next = OptionalRecord.empty();
+      } else {
+        next = OptionalRecord.ofNullable(named(getParser().parseRecord(in)));
+      }
+    }
+    return next.orElseNull();
+  }
+
+  /**
+   * @return the given record under this reader's header, if it has one
+   */
+  private CsvRecord named(CsvRecord record) {
+    if (header == null || record == null)
+      return record;
+    return new NamedCsvRecord(header, record.getFields());
+  }
+
+  private CsvRecord next() throws IOException {
+    CsvRecord result = peek();
+    next = null;
+    return result;
+  }
+
+  /* default */ static byte[] detectBom(Path file) throws IOException {
+    try (PushbackInputStream in =
+        new PushbackInputStream(Files.newInputStream(file), Boms.MAX_BOM_LENGTH)) {
+      return Boms.detectBom(in);
+    }
+  }
+
+  /**
+   * @return the parser
+   */
+  private Utf8CsvParser getParser() {
+    return parser;
+  }
+
+  /**
+   * @return the in
+   */
+  private LineCountingByteStream getIn() {
+    return in;
+  }
+}
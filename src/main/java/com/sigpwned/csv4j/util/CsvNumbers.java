@@ -0,0 +1,247 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.util;
+
+/**
+ * Parses numbers directly from character buffers, e.g., the field text passed to a
+ * {@link com.sigpwned.csv4j.read.CsvHandler}, without creating a {@link String} first. Each method
+ * accepts the same text as its {@link Long#parseLong(String)} or
+ * {@link Double#parseDouble(String)} counterpart and throws {@link NumberFormatException} for
+ * anything else. The {@code is} methods test text without parsing it or throwing, so rejected text
+ * costs no objects.
+ */
+public final class CsvNumbers {
+  private CsvNumbers() {}
+
+  /**
+   * The powers of ten that are exactly representable as doubles
+   */
+  private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9,
+      1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+  /**
+   * The largest integer such that it and all smaller non-negative integers are exactly
+   * representable as doubles
+   */
+  private static final long MAX_EXACT_INTEGER = 1L << 53;
+
+  /**
+   * @return {@code true} if {@link #parseInt(char[], int, int)} accepts the given text
+   */
+  public static boolean isInt(char[] buf, int off, int len) {
+    return isInteger(buf, off, len, Integer.MIN_VALUE, Integer.MAX_VALUE);
+  }
+
+  /**
+   * @return {@code true} if {@link #parseLong(char[], int, int)} accepts the given text
+   */
+  public static boolean isLong(char[] buf, int off, int len) {
+    return isInteger(buf, off, len, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  /**
+   * @return {@code true} if the given text is a plain decimal number, i.e., an optional sign,
+   *         digits with an optional fraction, and an optional exponent, or {@code false} otherwise.
+   *         {@link #parseDouble(char[], int, int)} accepts all such text, and also text this
+   *         rejects, e.g., {@code NaN}, {@code Infinity}, hexadecimal notation, type suffixes like
+   *         {@code 1d}, and surrounding whitespace.
+   */
+  public static boolean isDecimal(char[] buf, int off, int len) {
+    final int end = off + len;
+
+    int p = off;
+    if (p < end && (buf[p] == '-' || buf[p] == '+'))
+      p = p + 1;
+    int digits = 0;
+    while (p < end && buf[p] >= '0' && buf[p] <= '9') {
+      digits = digits + 1;
+      p = p + 1;
+    }
+    if (p < end && buf[p] == '.') {
+      p = p + 1;
+      while (p < end && buf[p] >= '0' && buf[p] <= '9') {
+        digits = digits + 1;
+        p = p + 1;
+      }
+    }
+    if (digits == 0)
+      return false;
+    if (p < end && (buf[p] == 'e' || buf[p] == 'E')) {
+      p = p + 1;
+      if (p < end && (buf[p] == '-' || buf[p] == '+'))
+        p = p + 1;
+      int start = p;
+      while (p < end && buf[p] >= '0' && buf[p] <= '9')
+        p = p + 1;
+      if (p == start)
+        return false;
+    }
+
+    return p == end;
+  }
+
+  public static int parseInt(char[] buf, int off, int len) {
+    long result = parseLong(buf, off, len);
+    if (result < Integer.MIN_VALUE || result > Integer.MAX_VALUE)
+      throw new NumberFormatException("For input string: \"" + new String(buf, off, len) + "\"");
+    return (int) result;
+  }
+
+  public static long parseLong(char[] buf, int off, int len) {
+    final int end = off + len;
+
+    int p = off;
+    boolean negative = false;
+    if (p < end && (buf[p] == '-' || buf[p] == '+')) {
+      negative = buf[p] == '-';
+      p = p + 1;
+    }
+    if (p == end)
+      throw new NumberFormatException("For input string: \"" + new String(buf, off, len) + "\"");
+
+    // Accumulate negatively, since the negative range is larger.
+    final long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+    long result = 0L;
+    while (p < end) {
+      int digit = buf[p] - '0';
+      if (digit < 0 || digit > 9 || result < limit / 10L || result * 10L < limit + digit)
+        throw new NumberFormatException("For input string: \"" + new String(buf, off, len) + "\"");
+      result = result * 10L - digit;
+      p = p + 1;
+    }
+
+    return negative ? result : -result;
+  }
+
+  /**
+   * Parses a double with the same result as {@link Double#parseDouble(String)}. Decimal numbers
+   * with at most 15 significant digits and a small decimal exponent are parsed exactly with one
+   * floating-point multiplication or division, as described by Clinger. Everything else, e.g.,
+   * longer numbers, {@code NaN}, or hexadecimal notation, falls back to
+   * {@link Double#parseDouble(String)}.
+   */
+  public static double parseDouble(char[] buf, int off, int len) {
+    final int end = off + len;
+
+    int p = off;
+    boolean negative = false;
+    if (p < end && (buf[p] == '-' || buf[p] == '+')) {
+      negative = buf[p] == '-';
+      p = p + 1;
+    }
+
+    long mantissa = 0L;
+    int digits = 0;
+    int significant = 0;
+    int exponent = 0;
+    while (p < end && buf[p] >= '0' && buf[p] <= '9') {
+      if (mantissa != 0L || buf[p] != '0')
+        significant = significant + 1;
+      if (significant <= 18)
+        mantissa = mantissa * 10L + (buf[p] - '0');
+      else
+        exponent = exponent + 1;
+      digits = digits + 1;
+      p = p + 1;
+    }
+    if (p < end && buf[p] == '.') {
+      p = p + 1;
+      while (p < end && buf[p] >= '0' && buf[p] <= '9') {
+        if (mantissa != 0L || buf[p] != '0')
+          significant = significant + 1;
+        if (significant <= 18) {
+          mantissa = mantissa * 10L + (buf[p] - '0');
+          exponent = exponent - 1;
+        }
+        digits = digits + 1;
+        p = p + 1;
+      }
+    }
+    if (digits > 0 && p < end && (buf[p] == 'e' || buf[p] == 'E')) {
+      p = p + 1;
+      boolean negativeExponent = false;
+      if (p < end && (buf[p] == '-' || buf[p] == '+')) {
+        negativeExponent = buf[p] == '-';
+        p = p + 1;
+      }
+      int start = p;
+      int explicit = 0;
+      while (p < end && buf[p] >= '0' && buf[p] <= '9') {
+        if (explicit < 100000)
+          explicit = explicit * 10 + (buf[p] - '0');
+        p = p + 1;
+      }
+      if (p == start)
+        return fallback(buf, off, len);
+      exponent = exponent + (negativeExponent ? -explicit : explicit);
+    }
+
+    if (digits == 0 || p != end || significant > 15 || mantissa > MAX_EXACT_INTEGER)
+      return fallback(buf, off, len);
+
+    // The mantissa is exact, and so is the power of ten, so one correctly-rounded operation gives
+    // the correctly-rounded result.
+    double result;
+    if (mantissa == 0L)
+      result = 0.0;
+    else if (exponent >= 0 && exponent < POWERS_OF_TEN.length)
+      result = mantissa * POWERS_OF_TEN[exponent];
+    else if (exponent < 0 && -exponent < POWERS_OF_TEN.length)
+      result = mantissa / POWERS_OF_TEN[-exponent];
+    else
+      return fallback(buf, off, len);
+
+    return negative ? -result : result;
+  }
+
+  /**
+   * @return {@code true} if the given text is a decimal integer with an optional sign in the given
+   *         range, or {@code false} otherwise
+   */
+  private static boolean isInteger(char[] buf, int off, int len, long min, long max) {
+    final int end = off + len;
+
+    int p = off;
+    boolean negative = false;
+    if (p < end && (buf[p] == '-' || buf[p] == '+')) {
+      negative = buf[p] == '-';
+      p = p + 1;
+    }
+    if (p == end)
+      return false;
+
+    // Accumulate negatively, since the negative range is larger.
+    final long limit = negative ? min : -max;
+    long result = 0L;
+    while (p < end) {
+      int digit = buf[p] - '0';
+      if (digit < 0 || digit > 9 || result < limit / 10L || result * 10L < limit + digit)
+        return false;
+      result = result * 10L - digit;
+      p = p + 1;
+    }
+
+    return true;
+  }
+
+  private static double fallback(char[] buf, int off, int len) {
+    return Double.parseDouble(new String(buf, off, len));
+  }
+}
@@ -0,0 +1,255 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.write;
+
+import static java.util.Objects.requireNonNull;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import com.sigpwned.csv4j.CsvFormat;
+import com.sigpwned.csv4j.CsvRecord;
+import com.sigpwned.csv4j.util.CsvFormats;
+
+/**
+ * Writes well-formatted records to a character stream in CSV format on a background thread. The
+ * caller formats records into one buffer while the background thread writes previously filled
+ * buffers to the underlying stream. There is a fixed number of buffers, so memory use is bounded.
+ * When all buffers are waiting to be written, {@link #writeNext(CsvRecord)} blocks until one is
+ * free, and {@link #writeNext(CsvRecord, long, TimeUnit)} gives up after a timeout instead. If the
+ * underlying stream fails, then the next call on this writer throws. This object is not
+ * thread-safe: records must be written from one thread at a time.
+ */
+public class AsyncCsvWriter implements AutoCloseable, Flushable {
+  public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  public static final int DEFAULT_BUFFER_COUNT = 2;
+
+  /**
+   * Tells the background thread to stop
+   */
+  private static final CharOutputBuffer STOP = new CharOutputBuffer(1);
+
+  private final CsvFormatter formatter;
+  private final Writer out;
+  private final int bufferSize;
+  private final int bufferCount;
+  private final BlockingQueue<CharOutputBuffer> free;
+  private final BlockingQueue<CharOutputBuffer> full;
+  private final Thread thread;
+  private CharOutputBuffer current;
+  private boolean closed;
+  private volatile Throwable failure;
+
+  public AsyncCsvWriter(Writer out) {
+    this(CsvFormats.CSV, out);
+  }
+
+  public AsyncCsvWriter(CsvFormat format, Writer out) {
+    this(new CsvFormatter(format), out, DEFAULT_BUFFER_SIZE, DEFAULT_BUFFER_COUNT);
+  }
+
+  /**
+   * @param bufferSize the number of characters at which a buffer is handed to the background
+   *        thread
+   * @param bufferCount the number of buffers, which must be at least 2 for the caller to format
+   *        records while the background thread writes
+   */
+  public AsyncCsvWriter(CsvFormatter formatter, Writer out, int bufferSize, int bufferCount) {
+    if (bufferSize < 1)
+      throw new IllegalArgumentException("bufferSize must be positive");
+    if (bufferCount < 1)
+      throw new IllegalArgumentException("bufferCount must be positive");
+    this.formatter = requireNonNull(formatter);
+    this.out = requireNonNull(out);
+    this.bufferSize = bufferSize;
+    this.bufferCount = bufferCount;
+    this.free = new ArrayBlockingQueue<>(bufferCount);
+    this.full = new ArrayBlockingQueue<>(bufferCount + 1);
+    for (int i = 0; i < bufferCount; i++)
+      free.add(new CharOutputBuffer(bufferSize));
+    this.thread = new Thread(this::drain, "csv4j-async-writer");
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  /**
+   * Write the given record to this writer's CSV data, waiting for a free buffer if necessary
+   */
+  public void writeNext(CsvRecord next) throws IOException {
+    checkClosed();
+    checkFailure();
+    if (current == null) {
+      try {
+        current = free.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException();
+      }
+    }
+    append(next);
+  }
+
+  /**
+   * Write the given record to this writer's CSV data, waiting up to the given time for a free
+   * buffer if necessary
+   * 
+   * @return {@code true} if the record was written, or {@code false} if no buffer became free in
+   *         time, in which case the record was not written
+   */
+  public boolean writeNext(CsvRecord next, long timeout, TimeUnit unit) throws IOException {
+    checkClosed();
+    checkFailure();
+    if (current == null) {
+      try {
+        current = free.poll(timeout, unit);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException();
+      }
+      if (current == null)
+        return false;
+    }
+    append(next);
+    return true;
+  }
+
+  /**
+   * Waits for all records to be written to the underlying stream, and then flushes it.
+   */
+  @Override
+  public void flush() throws IOException {
+    checkClosed();
+    checkFailure();
+    handOff();
+
+    // Once we hold every buffer, the background thread has written them all and is idle.
+    CharOutputBuffer[] buffers = new CharOutputBuffer[bufferCount];
+    int taken = 0;
+    try {
+      while (taken < bufferCount) {
+        buffers[taken] = free.take();
+        taken = taken + 1;
+      }
+      checkFailure();
+      getOut().flush();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    } finally {
+      for (int i = 0; i < taken; i++)
+        free.add(buffers[i]);
+    }
+  }
+
+  public CsvFormat getFormat() {
+    return getFormatter().getFormat();
+  }
+
+  /**
+   * Writes all records, stops the background thread, and closes the underlying stream. Once this
+   * writer is closed, writing or flushing it throws an {@link IOException}.
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed)
+      return;
+    try {
+      flush();
+    } finally {
+      closed = true;
+      full.add(STOP);
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      getOut().close();
+    }
+  }
+
+  private void append(CsvRecord next) throws IOException {
+    getFormatter().appendRecord(next, current);
+    current.append('\n');
+    if (current.length() >= bufferSize)
+      handOff();
+  }
+
+  /**
+   * Passes the current buffer, if any, to the background thread.
+   */
+  private void handOff() {
+    if (current != null) {
+      full.add(current);
+      current = null;
+    }
+  }
+
+  /**
+   * The body of the background thread, which writes full buffers to the underlying stream and
+   * returns them to the free queue. After a failure, buffers are discarded instead, so the caller
+   * never waits forever for a free buffer.
+   */
+  private void drain() {
+    try {
+      for (CharOutputBuffer buffer = full.take(); buffer != STOP; buffer = full.take()) {
+        if (failure == null) {
+          try {
+            getOut().write(buffer.array(), 0, buffer.length());
+          } catch (Throwable e) {
+            failure = e;
+          }
+        }
+        buffer.clear();
+        free.add(buffer);
+      }
+    } catch (InterruptedException e) {
+      // Someone wants us gone. So be it.
+    }
+  }
+
+  private void checkClosed() throws IOException {
+    if (closed)
+      throw new IOException("Stream closed");
+  }
+
+  private void checkFailure() throws IOException {
+    Throwable problem = failure;
+    if (problem != null)
+      throw new IOException("asynchronous write failed", problem);
+  }
+
+  /**
+   * @return the formatter
+   */
+  private CsvFormatter getFormatter() {
+    return formatter;
+  }
+
+  /**
+   * @return the out
+   */
+  private Writer getOut() {
+    return out;
+  }
+}
@@ -0,0 +1,177 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.write;
+
+import java.util.Arrays;
+
+/**
+ * A growable buffer of characters that formatted records are appended to before they are written
+ * out in bulk. Appending {@link String}s and {@link StringBuilder}s copies their characters
+ * directly without creating any intermediate objects.
+ */
+/* default */ final class CharOutputBuffer implements Appendable {
+  private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9};
+
+  private char[] buf;
+  private int length;
+
+  public CharOutputBuffer(int capacity) {
+    if (capacity < 1)
+      throw new IllegalArgumentException("capacity must be positive");
+    this.buf = new char[capacity];
+  }
+
+  @Override
+  public CharOutputBuffer append(char ch) {
+    ensureCapacity(1);
+    buf[length] = ch;
+    length = length + 1;
+    return this;
+  }
+
+  @Override
+  public CharOutputBuffer append(CharSequence s) {
+    return append(s, 0, s.length());
+  }
+
+  @Override
+  public CharOutputBuffer append(CharSequence s, int start, int end) {
+    final int n = end - start;
+    ensureCapacity(n);
+    if (s instanceof String) {
+      ((String) s).getChars(start, end, buf, length);
+    } else if (s instanceof StringBuilder) {
+      ((StringBuilder) s).getChars(start, end, buf, length);
+    } else {
+      for (int i = start; i < end; i++)
+        buf[length + i - start] = s.charAt(i);
+    }
+    length = length + n;
+    return this;
+  }
+
+  /**
+   * Appends the decimal digits of the given value, generated in place.
+   */
+  public CharOutputBuffer appendLong(long value) {
+    if (value == Long.MIN_VALUE)
+      return append("-9223372036854775808");
+
+    ensureCapacity(20);
+    if (value < 0L) {
+      buf[length] = '-';
+      length = length + 1;
+      value = -value;
+    }
+
+    int digits = 1;
+    for (long v = value; v >= 10L; v = v / 10L)
+      digits = digits + 1;
+
+    int p = length + digits;
+    do {
+      p = p - 1;
+      buf[p] = (char) ('0' + (int) (value % 10L));
+      value = value / 10L;
+    } while (value != 0L);
+
+    length = length + digits;
+    return this;
+  }
+
+  /**
+   * Appends the given value in the same notation as {@link Double#toString(double)}, but using as
+   * few digits as possible. Values in the range where {@link Double#toString(double)} uses plain
+   * notation and that can be written with at most 9 decimal places are formatted in place, and the
+   * result is checked to parse back to the same value. All other values fall back to
+   * {@link Double#toString(double)}.
+   */
+  public CharOutputBuffer appendDouble(double value) {
+    if (value == 0.0)
+      return append(Double.doubleToRawLongBits(value) < 0L ? "-0.0" : "0.0");
+
+    double magnitude = Math.abs(value);
+    if (magnitude >= 1e-3 && magnitude < 1e7) {
+      for (int places = 0; places < POWERS_OF_TEN.length; places++) {
+        double scaled = Math.rint(magnitude * POWERS_OF_TEN[places]);
+        // Both the scaled value and the power of ten are exact, so this division is correctly
+        // rounded, just like parsing the digits we are about to write.
+        if (scaled / POWERS_OF_TEN[places] == magnitude) {
+          if (value < 0.0)
+            append('-');
+          appendDecimal((long) scaled, places);
+          return this;
+        }
+      }
+    }
+
+    return append(Double.toString(value));
+  }
+
+  /**
+   * Appends the given non-negative unscaled value with the given number of decimal places, and at
+   * least one digit on both sides of the decimal point.
+   */
+  private void appendDecimal(long unscaled, int places) {
+    if (places == 0) {
+      appendLong(unscaled);
+      append(".0");
+      return;
+    }
+
+    long unit = (long) POWERS_OF_TEN[places];
+    appendLong(unscaled / unit);
+    append('.');
+
+    long fraction = unscaled % unit;
+    ensureCapacity(places);
+    for (int i = places - 1; i >= 0; i--) {
+      buf[length + i] = (char) ('0' + (int) (fraction % 10L));
+      fraction = fraction / 10L;
+    }
+    length = length + places;
+  }
+
+  /* default */ char[] array() {
+    return buf;
+  }
+
+  /* default */ int length() {
+    return length;
+  }
+
+  /* default */ void clear() {
+    length = 0;
+  }
+
+  /**
+   * Discards everything appended after the given length
+   */
+  /* default */ void truncate(int length) {
+    if (length < 0 || length > this.length)
+      throw new IndexOutOfBoundsException(Integer.toString(length));
+    this.length = length;
+  }
+
+  private void ensureCapacity(int n) {
+    if (length + n > buf.length)
+      buf = Arrays.copyOf(buf, Math.max(2 * buf.length, length + n));
+  }
+}
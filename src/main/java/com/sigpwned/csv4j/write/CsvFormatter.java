@@ -19,6 +19,8 @@
  */
 package com.sigpwned.csv4j.write;
 
+import static java.util.Objects.requireNonNull;
+import java.io.IOException;
 import java.util.List;
 import com.sigpwned.csv4j.CsvField;
 import com.sigpwned.csv4j.CsvFormat;
@@ -28,43 +30,301 @@ import com.sigpwned.csv4j.CsvRecord;
  * Converts CSV records into well-formatted character strings in CSV format
  */
 public class CsvFormatter {
+  /**
+   * Character class of characters that can appear in a field as-is
+   */
+  private static final byte PLAIN = 0;
+
+  /**
+   * Character class of characters that require the field to be quoted
+   */
+  private static final byte SPECIAL = 1;
+
+  /**
+   * Character class of the quote character, which requires the field to be quoted and must itself
+   * be escaped
+   */
+  private static final byte QUOTE = 2;
+
+  /**
+   * Character class of the escape character, if it is not the quote character, which requires the
+   * field to be quoted and must itself be escaped
+   */
+  private static final byte ESCAPE = 3;
+
   private final CsvFormat format;
+  private final QuotePolicy quotePolicy;
+
+  /**
+   * The character class of each character up to the largest special character. All other
+   * characters are {@link #PLAIN}.
+   */
+  private final byte[] classes;
 
   public CsvFormatter(CsvFormat format) {
-    this.format = format;
+    this(format, QuotePolicy.PRESERVE);
+  }
+
+  public CsvFormatter(CsvFormat format, QuotePolicy quotePolicy) {
+    this.format = requireNonNull(format);
+    this.quotePolicy = requireNonNull(quotePolicy);
+    this.classes = new byte[Math.max(128, Math.max(format.getEscapeChar(),
+        Math.max(format.getQuoteChar(), format.getColumnSeparatorChar())) + 1)];
+    this.classes[format.getEscapeChar()] = ESCAPE;
+    this.classes['\r'] = SPECIAL;
+    this.classes['\n'] = SPECIAL;
+    this.classes[format.getColumnSeparatorChar()] = SPECIAL;
+    this.classes[format.getQuoteChar()] = QUOTE;
   }
 
   public String formatRecord(CsvRecord record) {
-    List<CsvField> fields = record.getFields();
+    StringBuilder result = new StringBuilder();
+    try {
+      appendRecord(record, result);
+    } catch (IOException e) {
+      // StringBuilder never throws IOException
+      throw new AssertionError(e);
+    }
+    return result.toString();
+  }
 
+  public String formatField(CsvField field) {
     StringBuilder result = new StringBuilder();
+    try {
+      appendField(field, result);
+    } catch (IOException e) {
+      // StringBuilder never throws IOException
+      throw new AssertionError(e);
+    }
+    return result.toString();
+  }
+
+  /**
+   * Appends the given record to the given output, without a trailing newline. No intermediate
+   * strings are created.
+   * 
+   * @throws IllegalArgumentException if the policy is {@link QuotePolicy#NEVER} and any field needs
+   *         quoting, in which case nothing is appended
+   */
+  public void appendRecord(CsvRecord record, Appendable out) throws IOException {
+    checkRecord(record);
 
-    result.append(formatField(fields.get(0)));
+    List<CsvField> fields = record.getFields();
+    if (isLoneEmptyField(fields)) {
+      appendLoneEmptyField(fields.get(0).isQuoted(), out);
+      return;
+    }
+
+    appendField(fields.get(0), out);
     for (int i = 1; i < fields.size(); i++) {
-      result.append(getFormat().getColumnSeparatorChar());
-      result.append(formatField(fields.get(i)));
+      out.append(getFormat().getColumnSeparatorChar());
+      appendField(fields.get(i), out);
     }
+  }
 
-    return result.toString();
+  public void appendField(CsvField field, Appendable out) throws IOException {
+    appendField(field.isQuoted(), field.getText(), out);
   }
 
-  public String formatField(CsvField field) {
-    StringBuilder result = new StringBuilder();
-    if (field.isQuoted()) {
-      result.append(getFormat().getQuoteChar());
-      for (int i = 0; i < field.getText().length(); i++) {
-        char ch = field.getText().charAt(i);
-        if (ch == getFormat().getQuoteChar())
-          result.append(getFormat().getEscapeChar());
-        result.append(ch);
-      }
-      result.append(getFormat().getQuoteChar());
-    } else if (field.getText() != null) {
-      result.append(field.getText());
-    } else {
+  /**
+   * Appends a field with the given text to the given output, quoting it according to this
+   * formatter's {@link QuotePolicy}. The text is scanned once to decide whether it needs quoting
+   * and to find the quote characters to escape, and the runs of text between them are copied in
+   * bulk. {@code null} text appends nothing.
+   * 
+   * @param quoted whether the field is quoted, which only matters under
+   *        {@link QuotePolicy#PRESERVE}
+   * @throws IllegalArgumentException if the policy is {@link QuotePolicy#NEVER} and the field needs
+   *         quoting
+   */
+  public void appendField(boolean quoted, CharSequence text, Appendable out) throws IOException {
+    if (text == null) {
       // We indicate null unquoted
+      return;
     }
-    return result.toString();
+
+    final int length = text.length();
+    switch (getQuotePolicy()) {
+      case PRESERVE:
+        if (quoted)
+          appendQuoted(text, 0, out);
+        else
+          out.append(text);
+        break;
+      case ALL:
+        appendQuoted(text, 0, out);
+        break;
+      case MINIMAL: {
+        int special = indexOfSpecial(text);
+        if (special == length)
+          out.append(text);
+        else
+          appendQuoted(text, special, out);
+        break;
+      }
+      case NON_NUMERIC: {
+        int special = indexOfSpecial(text);
+        if (special == length && isNumeric(text))
+          out.append(text);
+        else
+          appendQuoted(text, special, out);
+        break;
+      }
+      case NEVER:
+        checkUnquoted(text);
+        out.append(text);
+        break;
+      default:
+        throw new AssertionError(getQuotePolicy());
+    }
+  }
+
+  /**
+   * Checks that this formatter can write the given record, without writing it
+   * 
+   * @throws IllegalArgumentException if the policy is {@link QuotePolicy#NEVER} and any field needs
+   *         quoting
+   */
+  /* default */ void checkRecord(CsvRecord record) {
+    if (getQuotePolicy() == QuotePolicy.NEVER) {
+      List<CsvField> fields = record.getFields();
+      if (isLoneEmptyField(fields))
+        throw new IllegalArgumentException("lone empty field requires quoting");
+      for (int i = 0; i < fields.size(); i++)
+        checkUnquoted(fields.get(i).getText());
+    }
+  }
+
+  /**
+   * Appends a record whose only field is empty or {@code null}. Unquoted, that record is a blank
+   * line, which readers skip, so the field is quoted unless the policy is
+   * {@link QuotePolicy#PRESERVE} and the field is unquoted.
+   * 
+   * @throws IllegalArgumentException if the policy is {@link QuotePolicy#NEVER}
+   */
+  /* default */ void appendLoneEmptyField(boolean quoted, Appendable out) throws IOException {
+    switch (getQuotePolicy()) {
+      case PRESERVE:
+        if (quoted)
+          appendQuoted("", 0, out);
+        break;
+      case NEVER:
+        throw new IllegalArgumentException("lone empty field requires quoting");
+      default:
+        appendQuoted("", 0, out);
+        break;
+    }
+  }
+
+  /**
+   * @return {@code true} if this formatter's policy quotes fields of the given kind whose text
+   *         contains no special characters, e.g., numbers, or {@code false} otherwise
+   */
+  /* default */ boolean isQuotedPlainField(boolean numeric) {
+    switch (getQuotePolicy()) {
+      case ALL:
+        return true;
+      case NON_NUMERIC:
+        return !numeric;
+      default:
+        return false;
+    }
+  }
+
+  private static boolean isLoneEmptyField(List<CsvField> fields) {
+    if (fields.size() != 1)
+      return false;
+    String text = fields.get(0).getText();
+    return text == null || text.isEmpty();
+  }
+
+  /**
+   * @throws IllegalArgumentException if the given text cannot be written without quotes
+   */
+  private void checkUnquoted(CharSequence text) {
+    if (text != null && indexOfSpecial(text) != text.length())
+      throw new IllegalArgumentException("field requires quoting");
+  }
+
+  /**
+   * Appends the given text as a quoted field, escaping quote and escape characters. The given
+   * prefix of the text is known to contain no special characters, so it is copied without being
+   * scanned again.
+   */
+  private void appendQuoted(CharSequence text, int from, Appendable out) throws IOException {
+    final char quote = getFormat().getQuoteChar();
+    final char escape = getFormat().getEscapeChar();
+    final int length = text.length();
+
+    out.append(quote);
+    int start = 0;
+    for (int i = from; i < length; i++) {
+      char ch = text.charAt(i);
+      if (ch < classes.length && classes[ch] >= QUOTE) {
+        out.append(text, start, i);
+        out.append(escape);
+        start = i;
+      }
+    }
+    out.append(text, start, length);
+    out.append(quote);
+  }
+
+  /**
+   * @return the index of the first character in the given text that requires quoting, or the length
+   *         of the text if there is none
+   */
+  private int indexOfSpecial(CharSequence text) {
+    final int length = text.length();
+    for (int i = 0; i < length; i++) {
+      char ch = text.charAt(i);
+      if (ch < classes.length && classes[ch] != PLAIN)
+        return i;
+    }
+    return length;
+  }
+
+  /**
+   * @return {@code true} if the given text is a decimal number with an optional sign, fraction, and
+   *         exponent, or {@code false} otherwise
+   */
+  private static boolean isNumeric(CharSequence text) {
+    final int length = text.length();
+    int i = 0;
+    if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+'))
+      i = i + 1;
+    int digits = 0;
+    while (i < length && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+      i = i + 1;
+      digits = digits + 1;
+    }
+    if (i < length && text.charAt(i) == '.') {
+      i = i + 1;
+      while (i < length && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+        i = i + 1;
+        digits = digits + 1;
+      }
+    }
+    if (digits == 0)
+      return false;
+    if (i < length && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+      i = i + 1;
+      if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+'))
+        i = i + 1;
+      int exponent = i;
+      while (i < length && text.charAt(i) >= '0' && text.charAt(i) <= '9')
+        i = i + 1;
+      if (i == exponent)
+        return false;
+    }
+    return i == length;
+  }
+
+  /**
+   * @return the quote policy
+   */
+  public QuotePolicy getQuotePolicy() {
+    return quotePolicy;
   }
 
   /**
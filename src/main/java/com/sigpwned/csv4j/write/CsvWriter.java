@@ -20,18 +20,28 @@
 package com.sigpwned.csv4j.write;
 
 import static java.util.Objects.requireNonNull;
+import java.io.Flushable;
 import java.io.IOException;
 import java.io.Writer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import com.sigpwned.csv4j.CsvField;
 import com.sigpwned.csv4j.CsvFormat;
 import com.sigpwned.csv4j.CsvRecord;
 import com.sigpwned.csv4j.util.CsvFormats;
 
 /**
- * Writes well-formatted records to a character stream in CSV format
+ * Writes well-formatted records to a character stream in CSV format. Records are formatted directly
+ * into an internal buffer, which is written to the underlying stream in bulk, so callers must
+ * {@link #flush()} or {@link #close()} this writer to see all records in the underlying stream.
  */
-public class CsvWriter implements AutoCloseable {
+public class CsvWriter implements AutoCloseable, Flushable {
+  public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
   private final CsvFormatter formatter;
   private final Writer out;
+  private final CharOutputBuffer buffer;
 
   public CsvWriter(Writer out) {
     this(CsvFormats.CSV, out);
@@ -44,14 +54,153 @@ public class CsvWriter implements AutoCloseable {
   public CsvWriter(CsvFormatter formatter, Writer out) {
     this.formatter = requireNonNull(formatter);
     this.out = requireNonNull(out);
+    this.buffer = new CharOutputBuffer(DEFAULT_BUFFER_SIZE);
   }
 
   /**
    * Write the given record to this writer's CSV data
+   * 
+   * @throws IllegalStateException if a record started with the {@code writeField} methods has not
+   *         been ended
    */
   public void writeNext(CsvRecord next) throws IOException {
-    getOut().write(getFormatter().formatRecord(next));
-    getOut().write('\n');
+    if (fields != 0)
+      throw new IllegalStateException("record in progress");
+    int start = getBuffer().length();
+    try {
+      getFormatter().appendRecord(next, getBuffer());
+    } catch (RuntimeException e) {
+      getBuffer().truncate(start);
+      throw e;
+    }
+    getBuffer().append('\n');
+    if (getBuffer().length() >= DEFAULT_BUFFER_SIZE)
+      drain();
+  }
+
+  /**
+   * Write the given field to the current record of this writer's CSV data. The first call to a
+   * {@code writeField} method starts a new record, and {@link #endRecord()} ends it. Fields are
+   * formatted directly into this writer's buffer.
+   */
+  public CsvWriter writeField(CsvField field) throws IOException {
+    return writeField(field.isQuoted(), field.getText());
+  }
+
+  /**
+   * @throws IllegalArgumentException if the formatter rejects the field, in which case the whole
+   *         current record is discarded
+   * @see #writeField(CsvField)
+   */
+  public CsvWriter writeField(boolean quoted, CharSequence text) throws IOException {
+    startField();
+    try {
+      getFormatter().appendField(quoted, text, getBuffer());
+    } catch (RuntimeException e) {
+      getBuffer().truncate(recordStart);
+      fields = 0;
+      throw e;
+    }
+    return this;
+  }
+
+  /**
+   * Write the given number to the current record without converting it to a string first.
+   * 
+   * @see #writeField(CsvField)
+   */
+  public CsvWriter writeField(long value) throws IOException {
+    boolean quoted = startPlainField(true);
+    getBuffer().appendLong(value);
+    return endPlainField(quoted);
+  }
+
+  /**
+   * Write the given number to the current record without converting it to a string first. The
+   * notation matches {@link Double#toString(double)}, but common values are written in place with
+   * the fewest digits that read back as the same value. {@code NaN} and {@code Infinity} are
+   * quoted exactly as {@link #writeField(boolean, CharSequence)} would quote them.
+   * 
+   * @see #writeField(CsvField)
+   */
+  public CsvWriter writeField(double value) throws IOException {
+    boolean quoted = startPlainField(!Double.isNaN(value) && !Double.isInfinite(value));
+    getBuffer().appendDouble(value);
+    return endPlainField(quoted);
+  }
+
+  /**
+   * @see #writeField(CsvField)
+   */
+  public CsvWriter writeField(boolean value) throws IOException {
+    boolean quoted = startPlainField(false);
+    getBuffer().append(value ? "true" : "false");
+    return endPlainField(quoted);
+  }
+
+  /**
+   * Write the given date to the current record in ISO-8601 format, e.g., {@code 2024-01-31}.
+   * 
+   * @see #writeField(CsvField)
+   */
+  public CsvWriter writeField(LocalDate value) throws IOException {
+    int year = value.getYear();
+    if (year < 0 || year > 9999)
+      return writeField(value, DateTimeFormatter.ISO_LOCAL_DATE);
+
+    boolean quoted = startPlainField(false);
+    appendDigits(year, 4);
+    getBuffer().append('-');
+    appendDigits(value.getMonthValue(), 2);
+    getBuffer().append('-');
+    appendDigits(value.getDayOfMonth(), 2);
+    return endPlainField(quoted);
+  }
+
+  /**
+   * Write the given temporal value to the current record using the given formatter, e.g.,
+   * {@link DateTimeFormatter#ISO_INSTANT}. The value is formatted into a reusable scratch buffer,
+   * so no strings are created.
+   * 
+   * @see #writeField(CsvField)
+   */
+  public CsvWriter writeField(TemporalAccessor value, DateTimeFormatter formatter)
+      throws IOException {
+    scratch.setLength(0);
+    formatter.formatTo(value, scratch);
+    return writeField(false, scratch);
+  }
+
+  /**
+   * Ends the current record started with the {@code writeField} methods.
+   * 
+   * @throws IllegalArgumentException if the formatter rejects the record, in which case the whole
+   *         record is discarded
+   */
+  public void endRecord() throws IOException {
+    if (fields == 1 && getBuffer().length() == recordStart) {
+      // The record is one empty field, which would be a blank line as it stands.
+      try {
+        getFormatter().appendLoneEmptyField(false, getBuffer());
+      } catch (RuntimeException e) {
+        getBuffer().truncate(recordStart);
+        fields = 0;
+        throw e;
+      }
+    }
+    fields = 0;
+    getBuffer().append('\n');
+    if (getBuffer().length() >= DEFAULT_BUFFER_SIZE)
+      drain();
+  }
+
+  /**
+   * Writes all buffered records to the underlying stream and flushes it.
+   */
+  @Override
+  public void flush() throws IOException {
+    drain();
+    getOut().flush();
   }
 
   public CsvFormat getFormat() {
@@ -60,7 +209,71 @@ public class CsvWriter implements AutoCloseable {
 
   @Override
   public void close() throws IOException {
-    getOut().close();
+    try {
+      drain();
+    } finally {
+      getOut().close();
+    }
+  }
+
+  /**
+   * The number of fields written to the current record with the {@code writeField} methods
+   */
+  private int fields;
+
+  /**
+   * The length of the buffer when the current record started, so a rejected record can be discarded
+   */
+  private int recordStart;
+
+  /**
+   * Used to format temporal values
+   */
+  private final StringBuilder scratch = new StringBuilder();
+
+  private void startField() {
+    if (fields == 0)
+      recordStart = getBuffer().length();
+    else
+      getBuffer().append(getFormat().getColumnSeparatorChar());
+    fields = fields + 1;
+  }
+
+  /**
+   * Starts a field whose text contains no special characters, quoting it if the quote policy
+   * requires it.
+   * 
+   * @return whether the field is quoted
+   */
+  private boolean startPlainField(boolean numeric) {
+    startField();
+    boolean quoted = getFormatter().isQuotedPlainField(numeric);
+    if (quoted)
+      getBuffer().append(getFormat().getQuoteChar());
+    return quoted;
+  }
+
+  private CsvWriter endPlainField(boolean quoted) {
+    if (quoted)
+      getBuffer().append(getFormat().getQuoteChar());
+    return this;
+  }
+
+  /**
+   * Appends the given non-negative value, zero-padded to the given width
+   */
+  private void appendDigits(int value, int width) {
+    int digits = 1;
+    for (int v = value; v >= 10; v = v / 10)
+      digits = digits + 1;
+    for (int i = digits; i < width; i++)
+      getBuffer().append('0');
+    getBuffer().appendLong(value);
+  }
+
+  private void drain() throws IOException {
+    getOut().write(getBuffer().array(), 0, getBuffer().length());
+    getBuffer().clear();
   }
 
   /**
@@ -76,4 +289,11 @@ public class CsvWriter implements AutoCloseable {
   private Writer getOut() {
     return out;
   }
+
+  /**
+   * @return the buffer
+   */
+  private CharOutputBuffer getBuffer() {
+    return buffer;
+  }
 }
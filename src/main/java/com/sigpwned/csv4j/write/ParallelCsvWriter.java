@@ -0,0 +1,201 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.write;
+
+import static java.util.Objects.requireNonNull;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.stream.Stream;
+import com.sigpwned.csv4j.CsvFormat;
+import com.sigpwned.csv4j.CsvRecord;
+import com.sigpwned.csv4j.util.CsvFormats;
+
+/**
+ * Writes well-formatted records to a character stream in CSV format, formatting batches of records
+ * concurrently. Records are collected into batches, each batch is formatted into its own buffer on
+ * the given executor, and the buffers are written to the underlying stream in the original order.
+ * At most a fixed number of batches are pending at once, so memory use is bounded no matter how
+ * fast the caller produces records. This object is not thread-safe: records must be written from
+ * one thread at a time. Callers must {@link #flush()} or {@link #close()} this writer to see all
+ * records in the underlying stream.
+ */
+public class ParallelCsvWriter implements AutoCloseable, Flushable {
+  public static final int DEFAULT_BATCH_SIZE = 1024;
+
+  private final CsvFormatter formatter;
+  private final Writer out;
+  private final Executor executor;
+  private final int batchSize;
+  private final int maxPendingBatches;
+  private final Deque<Future<CharOutputBuffer>> pending;
+  private List<CsvRecord> batch;
+
+  public ParallelCsvWriter(Writer out) {
+    this(CsvFormats.CSV, out);
+  }
+
+  public ParallelCsvWriter(CsvFormat format, Writer out) {
+    this(new CsvFormatter(format), out, ForkJoinPool.commonPool(), DEFAULT_BATCH_SIZE,
+        2 * ForkJoinPool.getCommonPoolParallelism());
+  }
+
+  /**
+   * @param executor the executor to format batches on
+   * @param batchSize the number of records in each batch
+   * @param maxPendingBatches the maximum number of batches that may be waiting to be written before
+   *        {@link #writeNext(CsvRecord)} blocks to write the oldest one
+   */
+  public ParallelCsvWriter(CsvFormatter formatter, Writer out, Executor executor, int batchSize,
+      int maxPendingBatches) {
+    if (batchSize < 1)
+      throw new IllegalArgumentException("batchSize must be positive");
+    if (maxPendingBatches < 1)
+      throw new IllegalArgumentException("maxPendingBatches must be positive");
+    this.formatter = requireNonNull(formatter);
+    this.out = requireNonNull(out);
+    this.executor = requireNonNull(executor);
+    this.batchSize = batchSize;
+    this.maxPendingBatches = maxPendingBatches;
+    this.pending = new ArrayDeque<>();
+    this.batch = new ArrayList<>(batchSize);
+  }
+
+  /**
+   * Write the given record to this writer's CSV data. The record is checked before it joins a
+   * batch, so a record the formatter rejects is discarded on its own, and the other records in its
+   * batch are still written.
+   * 
+   * @throws IllegalArgumentException if the formatter rejects the record
+   */
+  public void writeNext(CsvRecord next) throws IOException {
+    getFormatter().checkRecord(requireNonNull(next));
+    batch.add(next);
+    if (batch.size() == batchSize)
+      submit();
+  }
+
+  /**
+   * Write all the given records to this writer's CSV data, in encounter order
+   */
+  public void writeAll(Stream<? extends CsvRecord> records) throws IOException {
+    for (Iterator<? extends CsvRecord> i = records.iterator(); i.hasNext();)
+      writeNext(i.next());
+  }
+
+  /**
+   * Formats any partial batch, waits for all pending batches, writes them to the underlying stream,
+   * and flushes it.
+   */
+  @Override
+  public void flush() throws IOException {
+    if (!batch.isEmpty())
+      submit();
+    while (!pending.isEmpty())
+      write(pending.remove());
+    getOut().flush();
+  }
+
+  public CsvFormat getFormat() {
+    return getFormatter().getFormat();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      for (Future<CharOutputBuffer> f : pending)
+        f.cancel(false);
+      getOut().close();
+    }
+  }
+
+  /**
+   * Hands the current batch to the executor, and then writes any batches at the head of the queue
+   * that are done, or that must be written to respect the limit on pending batches.
+   */
+  private void submit() throws IOException {
+    final List<CsvRecord> records = batch;
+    batch = new ArrayList<>(batchSize);
+
+    FutureTask<CharOutputBuffer> task = new FutureTask<>(() -> format(records));
+    executor.execute(task);
+    pending.add(task);
+
+    while (!pending.isEmpty()
+        && (pending.size() > maxPendingBatches || pending.peek().isDone()))
+      write(pending.remove());
+  }
+
+  private CharOutputBuffer format(List<CsvRecord> records) throws IOException {
+    CharOutputBuffer result = new CharOutputBuffer(CsvWriter.DEFAULT_BUFFER_SIZE);
+    for (CsvRecord record : records) {
+      getFormatter().appendRecord(record, result);
+      result.append('\n');
+    }
+    return result;
+  }
+
+  private void write(Future<CharOutputBuffer> f) throws IOException {
+    CharOutputBuffer formatted;
+    try {
+      formatted = f.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException)
+        throw (IOException) cause;
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException) cause;
+      if (cause instanceof Error)
+        throw (Error) cause;
+      throw new IOException(cause);
+    }
+    getOut().write(formatted.array(), 0, formatted.length());
+  }
+
+  /**
+   * @return the formatter
+   */
+  private CsvFormatter getFormatter() {
+    return formatter;
+  }
+
+  /**
+   * @return the out
+   */
+  private Writer getOut() {
+    return out;
+  }
+}
@@ -0,0 +1,255 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.write;
+
+import static java.util.Objects.requireNonNull;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses data in gzip format using multiple threads, in the style of pigz. The data is split
+ * into blocks, and each block is deflated independently on the given executor, using the end of
+ * the previous block as a preset dictionary so compression barely suffers. Each compressed block
+ * ends with a sync flush, so the compressed blocks concatenate into a single valid deflate stream,
+ * and the output is one ordinary gzip member that any gzip reader, e.g. {@code zcat} or
+ * {@link java.util.zip.GZIPInputStream}, can read. The checksum is computed over the blocks in
+ * order as they are written. At most a fixed number of blocks are pending at once, so memory use
+ * is bounded. This object is not thread-safe.
+ */
+public class ParallelGzipOutputStream extends FilterOutputStream {
+  public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+  /**
+   * The size of the deflate window, and therefore the most dictionary a block can use
+   */
+  private static final int DICTIONARY_SIZE = 32 * 1024;
+
+  private static final byte[] HEADER = {(byte) 0x1F, (byte) 0x8B, // magic
+      Deflater.DEFLATED, // compression method
+      0, // flags
+      0, 0, 0, 0, // modification time
+      0, // extra flags
+      (byte) 0xFF // operating system, unknown
+  };
+
+  private final Executor executor;
+  private final int level;
+  private final int blockSize;
+  private final int maxPendingBlocks;
+  private final Deque<Future<byte[]>> pending;
+  private final CRC32 crc;
+  private byte[] block;
+  private int length;
+  private byte[] dictionary;
+  private long size;
+  private boolean closed;
+
+  public ParallelGzipOutputStream(OutputStream out) throws IOException {
+    this(out, ForkJoinPool.commonPool(), Deflater.DEFAULT_COMPRESSION, DEFAULT_BLOCK_SIZE,
+        2 * ForkJoinPool.getCommonPoolParallelism());
+  }
+
+  /**
+   * @param executor the executor to compress blocks on
+   * @param level the compression level, as for {@link Deflater#setLevel(int)}
+   * @param blockSize the number of uncompressed bytes in each block, which must be at least the
+   *        32KiB deflate window
+   * @param maxPendingBlocks the maximum number of blocks that may be waiting to be written before
+   *        writes block to write the oldest one
+   */
+  public ParallelGzipOutputStream(OutputStream out, Executor executor, int level, int blockSize,
+      int maxPendingBlocks) throws IOException {
+    super(requireNonNull(out));
+    if (blockSize < DICTIONARY_SIZE)
+      throw new IllegalArgumentException("blockSize must be at least " + DICTIONARY_SIZE);
+    if (maxPendingBlocks < 1)
+      throw new IllegalArgumentException("maxPendingBlocks must be positive");
+    this.executor = requireNonNull(executor);
+    this.level = level;
+    this.blockSize = blockSize;
+    this.maxPendingBlocks = maxPendingBlocks;
+    this.pending = new ArrayDeque<>();
+    this.crc = new CRC32();
+    this.block = new byte[blockSize];
+    out.write(HEADER);
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    block[length] = (byte) b;
+    length = length + 1;
+    if (length == blockSize)
+      submit();
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      int n = Math.min(len, blockSize - length);
+      System.arraycopy(b, off, block, length, n);
+      length = length + n;
+      off = off + n;
+      len = len - n;
+      if (length == blockSize)
+        submit();
+    }
+  }
+
+  /**
+   * Compresses any partial block, waits for all pending blocks, writes them to the underlying
+   * stream, and flushes it. Because every block ends with a sync flush, all data written so far can
+   * be decompressed from the output.
+   */
+  @Override
+  public void flush() throws IOException {
+    if (length > 0)
+      submit();
+    while (!pending.isEmpty())
+      write(pending.remove());
+    out.flush();
+  }
+
+  /**
+   * Writes all remaining data, the end of the deflate stream, and the gzip trailer, and then closes
+   * the underlying stream.
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed)
+      return;
+    closed = true;
+    try {
+      flush();
+
+      // An empty final block ends the deflate stream.
+      Deflater deflater = new Deflater(level, true);
+      try {
+        deflater.finish();
+        out.write(deflate(deflater, Deflater.NO_FLUSH));
+      } finally {
+        deflater.end();
+      }
+
+      writeIntLE((int) crc.getValue());
+      writeIntLE((int) size);
+      out.flush();
+    } finally {
+      for (Future<byte[]> f : pending)
+        f.cancel(false);
+      out.close();
+    }
+  }
+
+  /**
+   * Hands the current block to the executor, and then writes any blocks at the head of the queue
+   * that are done, or that must be written to respect the limit on pending blocks.
+   */
+  private void submit() throws IOException {
+    final byte[] input = block;
+    final int inputLength = length;
+    final byte[] inputDictionary = dictionary;
+
+    crc.update(input, 0, inputLength);
+    size = size + inputLength;
+    if (inputLength >= DICTIONARY_SIZE) {
+      dictionary = Arrays.copyOfRange(input, inputLength - DICTIONARY_SIZE, inputLength);
+    } else {
+      // This is a partial block from a flush, so keep the tail of the previous dictionary too.
+      byte[] joined = new byte[Math.min(DICTIONARY_SIZE,
+          (inputDictionary != null ? inputDictionary.length : 0) + inputLength)];
+      int keep = joined.length - inputLength;
+      if (keep > 0)
+        System.arraycopy(inputDictionary, inputDictionary.length - keep, joined, 0, keep);
+      System.arraycopy(input, 0, joined, keep, inputLength);
+      dictionary = joined;
+    }
+
+    block = new byte[blockSize];
+    length = 0;
+
+    FutureTask<byte[]> task = new FutureTask<>(() -> {
+      Deflater deflater = new Deflater(level, true);
+      try {
+        if (inputDictionary != null)
+          deflater.setDictionary(inputDictionary);
+        deflater.setInput(input, 0, inputLength);
+        return deflate(deflater, Deflater.SYNC_FLUSH);
+      } finally {
+        deflater.end();
+      }
+    });
+    executor.execute(task);
+    pending.add(task);
+
+    while (!pending.isEmpty() && (pending.size() > maxPendingBlocks || pending.peek().isDone()))
+      write(pending.remove());
+  }
+
+  /**
+   * @return all the output of the given deflater, which must have all its input already
+   */
+  private static byte[] deflate(Deflater deflater, int flush) {
+    byte[] result = new byte[1024];
+    int n = 0;
+    for (;;) {
+      n = n + deflater.deflate(result, n, result.length - n, flush);
+      if (n < result.length)
+        return Arrays.copyOf(result, n);
+      result = Arrays.copyOf(result, 2 * result.length);
+    }
+  }
+
+  private void write(Future<byte[]> f) throws IOException {
+    byte[] compressed;
+    try {
+      compressed = f.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException) cause;
+      if (cause instanceof Error)
+        throw (Error) cause;
+      throw new IOException(cause);
+    }
+    out.write(compressed);
+  }
+
+  private void writeIntLE(int value) throws IOException {
+    out.write(value & 0xFF);
+    out.write((value >>> 8) & 0xFF);
+    out.write((value >>> 16) & 0xFF);
+    out.write((value >>> 24) & 0xFF);
+  }
+}
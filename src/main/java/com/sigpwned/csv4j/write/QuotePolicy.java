@@ -0,0 +1,52 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.write;
+
+/**
+ * Decides which fields {@link CsvFormatter} quotes.
+ */
+public enum QuotePolicy {
+  /**
+   * Quote a field if and only if {@link com.sigpwned.csv4j.CsvField#isQuoted()} is set. The caller
+   * is responsible for quoting fields that need it. This is the default.
+   */
+  PRESERVE,
+
+  /**
+   * Quote a field if and only if it contains a quote character, a column separator, or a newline.
+   */
+  MINIMAL,
+
+  /**
+   * Quote every field.
+   */
+  ALL,
+
+  /**
+   * Quote every field except the ones that are decimal numbers, e.g., {@code -12}, {@code 3.5},
+   * {@code 1e-9}, and do not need quoting otherwise.
+   */
+  NON_NUMERIC,
+
+  /**
+   * Quote no field. Fields that need quoting cause an {@link IllegalArgumentException}.
+   */
+  NEVER;
+}
@@ -0,0 +1,124 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.write;
+
+import static java.util.Objects.requireNonNull;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import com.sigpwned.csv4j.CsvFormat;
+import com.sigpwned.csv4j.CsvRecord;
+import com.sigpwned.csv4j.util.Boms;
+import com.sigpwned.csv4j.util.CsvFormats;
+
+/**
+ * Writes well-formatted records to a byte stream in CSV format, encoded as UTF-8. Records are
+ * formatted and encoded directly into an internal byte buffer without an intermediate
+ * {@link java.io.Writer}, and the buffer is written to the underlying stream or channel in bulk, so
+ * callers must {@link #flush()} or {@link #close()} this writer to see all records in the
+ * underlying stream. Optionally, the output starts with a UTF-8 byte order mark (BOM), which some
+ * applications, notably Excel, use to detect the encoding.
+ */
+public class Utf8CsvWriter implements AutoCloseable, Flushable {
+  public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  private final CsvFormatter formatter;
+  private final Utf8OutputBuffer out;
+
+  public Utf8CsvWriter(OutputStream out) throws IOException {
+    this(CsvFormats.CSV, out);
+  }
+
+  public Utf8CsvWriter(CsvFormat format, OutputStream out) throws IOException {
+    this(format, out, false);
+  }
+
+  /**
+   * @param bom whether to write a UTF-8 BOM before the first record
+   */
+  public Utf8CsvWriter(CsvFormat format, OutputStream out, boolean bom) throws IOException {
+    this(new CsvFormatter(format),
+        new Utf8OutputBuffer(requireNonNull(out), DEFAULT_BUFFER_SIZE), bom);
+  }
+
+  public Utf8CsvWriter(CsvFormat format, WritableByteChannel out) throws IOException {
+    this(format, out, false);
+  }
+
+  /**
+   * Writes to the given channel, e.g., a {@link java.nio.channels.FileChannel}, through a direct
+   * buffer.
+   * 
+   * @param bom whether to write a UTF-8 BOM before the first record
+   */
+  public Utf8CsvWriter(CsvFormat format, WritableByteChannel out, boolean bom)
+      throws IOException {
+    this(new CsvFormatter(format),
+        new Utf8OutputBuffer(requireNonNull(out), DEFAULT_BUFFER_SIZE), bom);
+  }
+
+  /* default */ Utf8CsvWriter(CsvFormatter formatter, Utf8OutputBuffer out, boolean bom)
+      throws IOException {
+    this.formatter = requireNonNull(formatter);
+    this.out = requireNonNull(out);
+    if (bom)
+      out.write(Boms.UTF_8);
+  }
+
+  /**
+   * Write the given record to this writer's CSV data
+   */
+  public void writeNext(CsvRecord next) throws IOException {
+    getFormatter().appendRecord(next, getOut());
+    getOut().append('\n');
+  }
+
+  /**
+   * Writes all buffered records to the underlying stream or channel, and flushes the stream.
+   */
+  @Override
+  public void flush() throws IOException {
+    getOut().flush();
+  }
+
+  public CsvFormat getFormat() {
+    return getFormatter().getFormat();
+  }
+
+  @Override
+  public void close() throws IOException {
+    getOut().close();
+  }
+
+  /**
+   * @return the formatter
+   */
+  private CsvFormatter getFormatter() {
+    return formatter;
+  }
+
+  /**
+   * @return the out
+   */
+  private Utf8OutputBuffer getOut() {
+    return out;
+  }
+}
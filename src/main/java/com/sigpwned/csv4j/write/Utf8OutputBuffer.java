@@ -0,0 +1,208 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.write;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Encodes appended characters to UTF-8 into a byte buffer, which is written to an
+ * {@link OutputStream} or a {@link WritableByteChannel} whenever it fills up. Runs of ASCII
+ * characters, which dominate most CSV data, are copied one byte per character without consulting
+ * an encoder. Unpaired surrogates are encoded as {@code '?'}, as {@link String#getBytes} does.
+ */
+/* default */ final class Utf8OutputBuffer implements Appendable {
+  private final OutputStream stream;
+  private final WritableByteChannel channel;
+  private final ByteBuffer buffer;
+  private int position;
+
+  /**
+   * A high surrogate waiting for its low surrogate, or 0 if none
+   */
+  private char pending;
+
+  /**
+   * Writes to the given stream through a heap buffer.
+   */
+  public Utf8OutputBuffer(OutputStream stream, int bufferSize) {
+    this(stream, null, ByteBuffer.allocate(checkBufferSize(bufferSize)));
+  }
+
+  /**
+   * Writes to the given channel through a direct buffer, so the channel does not need to copy the
+   * bytes into a direct buffer of its own.
+   */
+  public Utf8OutputBuffer(WritableByteChannel channel, int bufferSize) {
+    this(null, channel, ByteBuffer.allocateDirect(checkBufferSize(bufferSize)));
+  }
+
+  private Utf8OutputBuffer(OutputStream stream, WritableByteChannel channel, ByteBuffer buffer) {
+    this.stream = stream;
+    this.channel = channel;
+    this.buffer = buffer;
+  }
+
+  @Override
+  public Utf8OutputBuffer append(char ch) throws IOException {
+    if (pending != 0) {
+      final char high = pending;
+      pending = 0;
+      if (Character.isLowSurrogate(ch)) {
+        int cp = Character.toCodePoint(high, ch);
+        reserve(4);
+        put((byte) (0xF0 | (cp >>> 18)));
+        put((byte) (0x80 | ((cp >>> 12) & 0x3F)));
+        put((byte) (0x80 | ((cp >>> 6) & 0x3F)));
+        put((byte) (0x80 | (cp & 0x3F)));
+        return this;
+      }
+      reserve(1);
+      put((byte) '?');
+    }
+
+    if (ch < 0x80) {
+      reserve(1);
+      put((byte) ch);
+    } else if (ch < 0x800) {
+      reserve(2);
+      put((byte) (0xC0 | (ch >>> 6)));
+      put((byte) (0x80 | (ch & 0x3F)));
+    } else if (Character.isHighSurrogate(ch)) {
+      pending = ch;
+    } else if (Character.isLowSurrogate(ch)) {
+      reserve(1);
+      put((byte) '?');
+    } else {
+      reserve(3);
+      put((byte) (0xE0 | (ch >>> 12)));
+      put((byte) (0x80 | ((ch >>> 6) & 0x3F)));
+      put((byte) (0x80 | (ch & 0x3F)));
+    }
+
+    return this;
+  }
+
+  @Override
+  public Utf8OutputBuffer append(CharSequence s) throws IOException {
+    return append(s, 0, s.length());
+  }
+
+  @Override
+  public Utf8OutputBuffer append(CharSequence s, int start, int end) throws IOException {
+    int i = start;
+    while (i < end) {
+      if (pending == 0) {
+        // This is the ASCII fast path. Copy as many ASCII characters as will fit.
+        if (position == buffer.capacity())
+          drain();
+        final int stop = Math.min(end, i + buffer.capacity() - position);
+        while (i < stop) {
+          final char ch = s.charAt(i);
+          if (ch >= 0x80)
+            break;
+          buffer.put(position, (byte) ch);
+          position = position + 1;
+          i = i + 1;
+        }
+        if (i == stop)
+          continue;
+      }
+      append(s.charAt(i));
+      i = i + 1;
+    }
+    return this;
+  }
+
+  /**
+   * Appends the given raw bytes, e.g., a byte order mark.
+   */
+  public void write(byte[] bytes) throws IOException {
+    for (byte b : bytes) {
+      reserve(1);
+      put(b);
+    }
+  }
+
+  /**
+   * Writes all buffered bytes to the underlying stream or channel.
+   */
+  public void drain() throws IOException {
+    if (stream != null) {
+      stream.write(buffer.array(), buffer.arrayOffset(), position);
+    } else {
+      ((Buffer) buffer).position(0);
+      ((Buffer) buffer).limit(position);
+      while (buffer.hasRemaining())
+        channel.write(buffer);
+      ((Buffer) buffer).clear();
+    }
+    position = 0;
+  }
+
+  /**
+   * Drains this buffer and flushes the underlying stream, if any.
+   */
+  public void flush() throws IOException {
+    drain();
+    if (stream != null)
+      stream.flush();
+  }
+
+  /**
+   * Drains this buffer and closes the underlying stream or channel. A trailing unpaired high
+   * surrogate is written as {@code '?'}.
+   */
+  public void close() throws IOException {
+    try {
+      if (pending != 0) {
+        pending = 0;
+        reserve(1);
+        put((byte) '?');
+      }
+      drain();
+    } finally {
+      if (stream != null)
+        stream.close();
+      else
+        channel.close();
+    }
+  }
+
+  private void reserve(int n) throws IOException {
+    if (position + n > buffer.capacity())
+      drain();
+  }
+
+  private void put(byte b) {
+    buffer.put(position, b);
+    position = position + 1;
+  }
+
+  private static int checkBufferSize(int bufferSize) {
+    // A buffer must hold at least one whole character.
+    if (bufferSize < 4)
+      throw new IllegalArgumentException("bufferSize must be at least 4");
+    return bufferSize;
+  }
+}
@@ -29,8 +29,10 @@ import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import org.junit.Test;
+import com.sigpwned.csv4j.read.CsvProjection;
 import com.sigpwned.csv4j.read.CsvReader;
 import com.sigpwned.csv4j.util.Boms;
 import com.sigpwned.csv4j.util.CsvFormats;
@@ -159,6 +161,40 @@ public class CsvTest {
     assertThat(observeds, is(expecteds));
   }
 
+  @Test
+  public void readIntoTest() throws IOException {
+    final List<CsvRecord> expecteds = Arrays.asList(
+        CsvRecord.of(Arrays.asList(new CsvField(true, "alpha"), new CsvField(true, "bravo"),
+            new CsvField(true, "charlie"))),
+        CsvRecord.of(Arrays.asList(new CsvField(true, "hello"), new CsvField(true, "10"),
+            new CsvField(true, "5"))),
+        CsvRecord.of(Arrays.asList(new CsvField(true, "world"), new CsvField(true, ""),
+            new CsvField(false, ""))));
+
+    // TODO Use text blocks when update to Java 17
+    final StringReader rbuf = new StringReader(
+        "\"alpha\",\"bravo\",\"charlie\"\n" + "\"hello\",\"10\",\"5\"\n" + "\"world\",\"\",\n");
+
+    final List<CsvRecord> observeds = new ArrayList<>();
+
+    final MutableCsvRecord o = new MutableCsvRecord();
+    try (final CsvReader r = new CsvReader(CsvFormats.CSV, rbuf)) {
+      assertThat(r.readInto(o), is(true));
+      observeds.add(o.toRecord());
+
+      // Make sure peeked records are not lost
+      final Iterator<CsvRecord> iterator = r.iterator();
+      assertThat(iterator.hasNext(), is(true));
+
+      while (r.readInto(o))
+        observeds.add(o.toRecord());
+    }
+
+    assertThat(observeds, is(expecteds));
+    assertThat(o.getText(0).toString(), is("world"));
+    assertThat(o.isQuoted(2), is(false));
+  }
+
   @Test
   public void excelExportCsvUtf8Test() throws IOException {
     final URL resource = getClass().getResource("example.csv");
@@ -193,4 +229,64 @@ public class CsvTest {
                 new CsvField(false, ""), new CsvField(false, ""), new CsvField(false, ""),
                 new CsvField(false, ""))))));
   }
+
+  @Test
+  public void projectionByNameTest() throws IOException {
+    final List<CsvRecord> observeds;
+    try (CsvReader r = new CsvReader(CsvFormats.CSV,
+        new StringReader("id,name,\"notes, long\"\n1,alpha,\"x\ny\"\n2,bravo\n"),
+        CsvProjection.ofNames("name", "id"))) {
+      observeds = r.stream().collect(toList());
+    }
+
+    assertThat(observeds,
+        is(Arrays.asList(CsvRecord.of(new CsvField(false, "name"), new CsvField(false, "id")),
+            CsvRecord.of(new CsvField(false, "alpha"), new CsvField(false, "1")),
+            CsvRecord.of(new CsvField(false, "bravo"), new CsvField(false, "2")))));
+  }
+
+  @Test
+  public void readIntoProjectionTest() throws IOException {
+    final String text = "id,name,\"notes, long\"\n1,alpha,\"x\ny\"\n2,bravo\n3\n";
+
+    final List<CsvRecord> expecteds;
+    try (CsvReader r = new CsvReader(CsvFormats.CSV, new StringReader(text),
+        CsvProjection.ofNames("notes, long", "id"))) {
+      expecteds = r.stream().collect(toList());
+    }
+
+    final List<CsvRecord> observeds = new ArrayList<>();
+    final MutableCsvRecord o = new MutableCsvRecord();
+    try (CsvReader r = new CsvReader(CsvFormats.CSV, new StringReader(text),
+        CsvProjection.ofNames("notes, long", "id"))) {
+      while (r.readInto(o))
+        observeds.add(o.toRecord());
+    }
+
+    assertThat(observeds, is(expecteds));
+    assertThat(observeds.get(1),
+        is(CsvRecord.of(new CsvField(true, "x\ny"), new CsvField(false, "1"))));
+    assertThat(observeds.get(3),
+        is(CsvRecord.of(new CsvField(false, ""), new CsvField(false, "3"))));
+  }
+
+  @Test
+  public void headerTest() throws IOException {
+    final List<String> customers = new ArrayList<>();
+    final CsvHeader header;
+    try (CsvReader r = new CsvReader(CsvFormats.CSV,
+        new StringReader("amount,customer_id,\"notes\"\n10,c1,hello\n20,c2\n30\n"))) {
+      header = r.readHeader();
+      for (CsvRecord row : r) {
+        final NamedCsvRecord named = (NamedCsvRecord) row;
+        assertThat(named.getHeader() == header, is(true));
+        customers.add(named.get("customer_id"));
+      }
+    }
+
+    assertThat(header.getNames(), is(Arrays.asList("amount", "customer_id", "notes")));
+    assertThat(header.indexOf("notes"), is(2));
+    assertThat(header.indexOf("missing"), is(-1));
+    assertThat(customers, is(Arrays.asList("c1", "c2", null)));
+  }
 }
@@ -0,0 +1,81 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.columnar;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import java.io.IOException;
+import java.io.StringReader;
+import org.junit.Test;
+import com.sigpwned.csv4j.util.CsvFormats;
+
+public class CsvColumnBatchReaderTest {
+  private static final CsvSchema SCHEMA = CsvSchema.of(
+      CsvSchema.Column.of("id", CsvColumnType.LONG),
+      CsvSchema.Column.of("amount", CsvColumnType.DOUBLE),
+      CsvSchema.Column.of("count", CsvColumnType.INT),
+      CsvSchema.Column.of("active", CsvColumnType.BOOLEAN),
+      CsvSchema.Column.of("name", CsvColumnType.STRING));
+
+  @Test
+  public void givenRecords_whenReadInBatches_thenColumnsHoldValues() throws IOException {
+    final String text = "name,skip,active,count,amount,id\n" + "alpha,x,true,1,1.5,10\n"
+        + "\"\",y,FALSE,,2.25,20\n" + ",z,true,3,-1,30\n" + "delta\n";
+
+    final CsvColumnBatch batch = new CsvColumnBatch(SCHEMA, 3);
+    try (CsvColumnBatchReader r =
+        new CsvColumnBatchReader(CsvFormats.CSV, new StringReader(text), SCHEMA)) {
+      assertThat(r.readBatch(batch), is(3));
+      assertThat(batch.getLongs(0)[2], is(30L));
+      assertThat(batch.getDoubles(1)[1], is(2.25));
+      assertThat(batch.getInts(2)[0], is(1));
+      assertThat(batch.isNull(2, 1), is(true));
+      assertThat(batch.getBooleans(3)[1], is(false));
+      assertThat(batch.getStrings(4)[0], is("alpha"));
+      assertThat(batch.getStrings(4)[1], is(""));
+      assertThat(batch.isNull(4, 1), is(false));
+      assertThat(batch.getStrings(4)[2], is(nullValue()));
+      assertThat(batch.isNull(4, 2), is(true));
+
+      assertThat(r.readBatch(batch), is(1));
+      assertThat(batch.getStrings(4)[0], is("delta"));
+      assertThat(batch.isNull(0, 0), is(true));
+      assertThat(batch.isNull(2, 0), is(true));
+
+      assertThat(r.readBatch(batch), is(0));
+    }
+  }
+
+  @Test
+  public void givenInvalidNumber_whenRead_thenThrowWithLocation() throws IOException {
+    final CsvColumnBatch batch = new CsvColumnBatch(SCHEMA, 10);
+    InvalidValueException problem = null;
+    try (CsvColumnBatchReader r = new CsvColumnBatchReader(CsvFormats.CSV,
+        new StringReader("id,amount,count,active,name\n1,2,3,true,a\n1,2,x,true,b\n"), SCHEMA)) {
+      r.readBatch(batch);
+    } catch (InvalidValueException e) {
+      problem = e;
+    }
+
+    assertThat(problem.getLinenum(), is(2));
+    assertThat(problem.getColumn(), is("count"));
+  }
+}
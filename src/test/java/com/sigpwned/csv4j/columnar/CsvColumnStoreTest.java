@@ -0,0 +1,126 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.columnar;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import com.sigpwned.csv4j.util.CsvFormats;
+
+public class CsvColumnStoreTest {
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private static final CsvSchema SCHEMA = CsvSchema.of(
+      CsvSchema.Column.of("id", CsvColumnType.LONG),
+      CsvSchema.Column.of("amount", CsvColumnType.DOUBLE),
+      CsvSchema.Column.of("count", CsvColumnType.INT),
+      CsvSchema.Column.of("active", CsvColumnType.BOOLEAN),
+      CsvSchema.Column.of("day", CsvColumnType.DATE),
+      CsvSchema.Column.of("name", CsvColumnType.STRING));
+
+  private static final int RECORDS = 10000;
+
+  @Test
+  public void givenDirectBuffers_whenLoaded_thenValuesAreReadable() throws IOException {
+    try (CsvColumnStore store = new CsvColumnStore(SCHEMA, null, 64)) {
+      load(store);
+      assertStore(store);
+    }
+  }
+
+  @Test
+  public void givenDefaultSegmentSize_whenLoadedWithOneRecord_thenLittleDirectMemoryIsUsed()
+      throws IOException {
+    final BufferPoolMXBean direct = ManagementFactory
+        .getPlatformMXBeans(BufferPoolMXBean.class).stream()
+        .filter(b -> b.getName().equals("direct")).findFirst().get();
+    final long before = direct.getMemoryUsed();
+
+    try (CsvColumnStore store = new CsvColumnStore(SCHEMA)) {
+      try (CsvColumnBatchReader r = new CsvColumnBatchReader(CsvFormats.CSV,
+          new StringReader("id,amount,count,active,day,name\n1,2.5,,true,2024-01-01,x\n"),
+          SCHEMA)) {
+        assertThat(store.appendAll(r), is(1L));
+      }
+
+      assertThat(direct.getMemoryUsed() - before < 1024L * 1024L, is(true));
+      assertThat(store.getLong(0, 0), is(1L));
+      assertThat(store.isNull(2, 0), is(true));
+      assertThat(store.getString(5, 0), is("x"));
+    }
+  }
+
+  @Test
+  public void givenDefaultSegmentSize_whenLoaded_thenValuesAreReadable() throws IOException {
+    try (CsvColumnStore store = new CsvColumnStore(SCHEMA)) {
+      load(store);
+      assertStore(store);
+    }
+  }
+
+  @Test
+  public void givenMappedFiles_whenLoaded_thenValuesAreReadableAndFilesDeletedOnClose()
+      throws IOException {
+    final Path directory = temp.newFolder().toPath();
+    try (CsvColumnStore store = new CsvColumnStore(SCHEMA, directory, 4096)) {
+      load(store);
+      assertStore(store);
+    }
+    final File[] remaining = directory.toFile().listFiles();
+    assertThat(remaining.length, is(0));
+  }
+
+  private static void load(CsvColumnStore store) throws IOException {
+    final StringBuilder text = new StringBuilder("name,id,amount,count,active,day\n");
+    for (int i = 0; i < RECORDS; i++) {
+      text.append(i % 7 == 0 ? "" : "\"name é " + i + "\"").append(',').append(i).append(',')
+          .append(i / 4.0).append(',').append(i % 5 == 0 ? "" : Integer.toString(-i)).append(',')
+          .append(i % 2 == 0).append(',').append("2024-01-01").append('\n');
+    }
+
+    try (CsvColumnBatchReader r =
+        new CsvColumnBatchReader(CsvFormats.CSV, new StringReader(text.toString()), SCHEMA)) {
+      assertThat(store.appendAll(r), is((long) RECORDS));
+    }
+  }
+
+  private static void assertStore(CsvColumnStore store) {
+    assertThat(store.size(), is((long) RECORDS));
+    for (int i = 0; i < RECORDS; i++) {
+      assertThat(store.getLong(0, i), is((long) i));
+      assertThat(store.getDouble(1, i), is(i / 4.0));
+      assertThat(store.isNull(2, i), is(i % 5 == 0));
+      assertThat(store.getInt(2, i), is(i % 5 == 0 ? 0 : -i));
+      assertThat(store.getBoolean(3, i), is(i % 2 == 0));
+      assertThat(store.getDate(4, i), is(19723));
+      assertThat(store.getString(5, i), i % 7 == 0 ? nullValue() : is("name é " + i));
+    }
+  }
+}
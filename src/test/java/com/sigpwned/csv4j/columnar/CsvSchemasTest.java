@@ -0,0 +1,117 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.columnar;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import com.sigpwned.csv4j.util.CsvFormats;
+
+public class CsvSchemasTest {
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private static final String TEXT = "flag,small,big,ratio,day,at,name,empty\n"
+      + "true,1,3000000000,1.5,2024-02-29,2024-02-29T12:34:56.789,alpha,\n"
+      + "FALSE,,2,2,1999-12-31,1999-12-31 23:59:59,\"\",\n"
+      + "false,-7,-1,1e3,2000-01-01,2000-01-01T00:00:00,123,\n";
+
+  @Test
+  public void givenSample_whenInferred_thenColumnsHaveMostSpecificTypes() throws IOException {
+    final CsvSchema schema = CsvSchemas.infer(CsvFormats.CSV, new StringReader(TEXT), 100);
+
+    assertThat(schema, is(CsvSchema.of(
+        CsvSchema.Column.of("flag", CsvColumnType.BOOLEAN, false, 5),
+        CsvSchema.Column.of("small", CsvColumnType.INT, true, 2),
+        CsvSchema.Column.of("big", CsvColumnType.LONG, false, 10),
+        CsvSchema.Column.of("ratio", CsvColumnType.DOUBLE, false, 3),
+        CsvSchema.Column.of("day", CsvColumnType.DATE, false, 10),
+        CsvSchema.Column.of("at", CsvColumnType.TIMESTAMP, false, 23),
+        CsvSchema.Column.of("name", CsvColumnType.STRING, false, 5),
+        CsvSchema.Column.of("empty", CsvColumnType.STRING, true, 0))));
+  }
+
+  @Test
+  public void givenTextParseDoubleAccepts_whenInferred_thenColumnIsString() throws IOException {
+    for (String value : new String[] {"NaN", "Infinity", "1d", "\" 2 \"", "0x1p3"}) {
+      final CsvSchema schema = CsvSchemas.infer(CsvFormats.CSV,
+          new StringReader("x\n1.5\n" + value + "\n"), 100);
+      assertThat(value, schema.getColumn(0).getType(), is(CsvColumnType.STRING));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void givenUtf16File_whenInferredFromChunks_thenThrows() throws IOException {
+    final Path file = temp.newFile().toPath();
+    Files.write(file, "a,b\n1,2\n".getBytes(StandardCharsets.UTF_16));
+
+    CsvSchemas.infer(CsvFormats.CSV, file, 4, 10);
+  }
+
+  @Test
+  public void givenInferredSchema_whenRead_thenValuesAreConverted() throws IOException {
+    final CsvSchema schema = CsvSchemas.infer(CsvFormats.CSV, new StringReader(TEXT), 100);
+
+    final CsvColumnBatch batch = new CsvColumnBatch(schema, 10);
+    try (CsvColumnBatchReader r =
+        new CsvColumnBatchReader(CsvFormats.CSV, new StringReader(TEXT), schema)) {
+      assertThat(r.readBatch(batch), is(3));
+    }
+
+    assertThat(batch.getBooleans(0)[1], is(false));
+    assertThat(batch.getLongs(2)[0], is(3000000000L));
+    assertThat(batch.getDates(4)[0], is((int) LocalDate.of(2024, 2, 29).toEpochDay()));
+    assertThat(batch.getTimestamps(5)[0], is(micros(LocalDateTime.of(2024, 2, 29, 12, 34, 56,
+        789000000))));
+    assertThat(batch.getTimestamps(5)[1], is(micros(LocalDateTime.of(1999, 12, 31, 23, 59, 59))));
+    assertThat(batch.getStrings(6)[2], is("123"));
+  }
+
+  @Test
+  public void givenFileWithQuotedNewlines_whenInferredFromChunks_thenBadRecordsAreSkipped()
+      throws IOException {
+    final StringBuilder text = new StringBuilder("id,notes,when\n");
+    for (int i = 0; i < 2000; i++)
+      text.append(i).append(",\"line one\nline, two\",").append(LocalDate.ofEpochDay(i))
+          .append('\n');
+    final Path file = temp.newFile().toPath();
+    Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+
+    final CsvSchema schema = CsvSchemas.infer(CsvFormats.CSV, file, 8, 10);
+
+    assertThat(schema.getColumn(0).getType(), is(CsvColumnType.INT));
+    assertThat(schema.getColumn(1).getType(), is(CsvColumnType.STRING));
+    assertThat(schema.getColumn(2).getType(), is(CsvColumnType.DATE));
+  }
+
+  private static long micros(LocalDateTime t) {
+    return t.toEpochSecond(ZoneOffset.UTC) * 1000000L + t.getNano() / 1000L;
+  }
+}
@@ -0,0 +1,81 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.columnar;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import org.junit.Test;
+
+public class ValuesTest {
+  @Test
+  public void givenDates_whenParsed_thenMatchLocalDate() {
+    for (LocalDate d = LocalDate.of(1600, 1, 1); d.getYear() < 2500; d = d.plusDays(13)) {
+      final char[] text = d.toString().toCharArray();
+      assertThat(Values.isDate(text, 0, text.length), is(true));
+      assertThat(Values.parseDate(text, 0, text.length), is((int) d.toEpochDay()));
+    }
+  }
+
+  @Test
+  public void givenTimestamps_whenParsed_thenMatchLocalDateTime() {
+    final String[] texts = {"1970-01-01T00:00:00", "1969-12-31T23:59:59.999999",
+        "2024-02-29 08:09:10.5", "2038-01-19T03:14:07.12"};
+    for (String text : texts) {
+      final LocalDateTime t = LocalDateTime.parse(text.replace(' ', 'T'));
+      final long expected = t.toEpochSecond(ZoneOffset.UTC) * 1000000L + t.getNano() / 1000L;
+      assertThat(Values.isTimestamp(text.toCharArray(), 0, text.length()), is(true));
+      assertThat(Values.parseTimestamp(text.toCharArray(), 0, text.length()), is(expected));
+    }
+  }
+
+  @Test
+  public void givenInvalidValues_whenParsed_thenThrow() {
+    final String[] dates = {"2023-02-29", "2024-13-01", "2024-1-01", "2024/01/01", "20240101xx"};
+    for (String text : dates) {
+      assertThat(text, Values.isDate(text.toCharArray(), 0, text.length()), is(false));
+      assertThrowsNumberFormat(() -> Values.parseDate(text.toCharArray(), 0, text.length()));
+    }
+
+    final String[] timestamps = {"2024-01-01T24:00:00", "2024-01-01T00:00:00.", "2024-01-01",
+        "2024-01-01T00:00:00.1234567", "2024-01-01X00:00:00", "2024-01-01T00:0a:00"};
+    for (String text : timestamps) {
+      assertThat(text, Values.isTimestamp(text.toCharArray(), 0, text.length()), is(false));
+      assertThrowsNumberFormat(() -> Values.parseTimestamp(text.toCharArray(), 0, text.length()));
+    }
+
+    for (String text : new String[] {"", "yes", "truee"}) {
+      assertThat(text, Values.isBoolean(text.toCharArray(), 0, text.length()), is(false));
+      assertThrowsNumberFormat(() -> Values.parseBoolean(text.toCharArray(), 0, text.length()));
+    }
+    assertThat(Values.isBoolean("TRUE".toCharArray(), 0, 4), is(true));
+  }
+
+  private static void assertThrowsNumberFormat(Runnable r) {
+    try {
+      r.run();
+    } catch (NumberFormatException e) {
+      return;
+    }
+    throw new AssertionError("expected NumberFormatException");
+  }
+}
@@ -0,0 +1,270 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.mapping;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.Test;
+import com.sigpwned.csv4j.read.CsvReader;
+import com.sigpwned.csv4j.read.MissingColumnException;
+import com.sigpwned.csv4j.write.CsvWriter;
+
+public class CsvMapperTest {
+  public static enum Status {
+    ACTIVE, CLOSED;
+  }
+
+  public static class Account {
+    private long id;
+    private String name;
+    private Double balance;
+    private Status status;
+    private LocalDate opened;
+
+    public long getId() {
+      return id;
+    }
+
+    public void setId(long id) {
+      this.id = id;
+    }
+
+    @CsvColumn("customer_name")
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public Double getBalance() {
+      return balance;
+    }
+
+    public void setBalance(Double balance) {
+      this.balance = balance;
+    }
+
+    public Status getStatus() {
+      return status;
+    }
+
+    public void setStatus(Status status) {
+      this.status = status;
+    }
+
+    public LocalDate getOpened() {
+      return opened;
+    }
+
+    public void setOpened(LocalDate opened) {
+      this.opened = opened;
+    }
+  }
+
+  public static class Point {
+    private final int x;
+    private final int y;
+    private final String label;
+
+    public Point(@CsvColumn("x") int x, @CsvColumn("y") int y,
+        @CsvColumn("label") String label) {
+      this.x = x;
+      this.y = y;
+      this.label = label;
+    }
+
+    public int getX() {
+      return x;
+    }
+
+    public int getY() {
+      return y;
+    }
+
+    public String getLabel() {
+      return label;
+    }
+  }
+
+  public static class Isolated {
+    private String name;
+    private int count;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    public void setCount(int count) {
+      this.count = count;
+    }
+  }
+
+  /**
+   * Defines one class itself instead of delegating to its parent, like a web application or plugin
+   * class loader, so the class is not visible from the library's class loader
+   */
+  private static class IsolatingClassLoader extends ClassLoader {
+    private final String isolated;
+
+    public IsolatingClassLoader(ClassLoader parent, String isolated) {
+      super(parent);
+      this.isolated = isolated;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      if (!name.equals(isolated))
+        return super.loadClass(name, resolve);
+      synchronized (getClassLoadingLock(name)) {
+        Class<?> result = findLoadedClass(name);
+        if (result == null) {
+          final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+          try (InputStream in =
+              getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+            final byte[] buf = new byte[4096];
+            for (int n = in.read(buf); n != -1; n = in.read(buf))
+              bytes.write(buf, 0, n);
+          } catch (IOException e) {
+            throw new ClassNotFoundException(name, e);
+          }
+          result = defineClass(name, bytes.toByteArray(), 0, bytes.size());
+        }
+        return result;
+      }
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void givenBeanFromChildClassLoader_whenReadAndWritten_thenMapsProperties()
+      throws Exception {
+    final Class<?> type = new IsolatingClassLoader(getClass().getClassLoader(),
+        Isolated.class.getName()).loadClass(Isolated.class.getName());
+    assertThat(type == Isolated.class, is(false));
+
+    final CsvMapper<Object> mapper = (CsvMapper<Object>) CsvMapper.of(type);
+
+    final List<Object> values;
+    try (CsvReader r = new CsvReader(new StringReader("count,name\n3,x\n"))) {
+      values = mapper.read(r).collect(toList());
+    }
+
+    assertThat(values.size(), is(1));
+    assertThat(type.getMethod("getName").invoke(values.get(0)), is("x"));
+    assertThat(type.getMethod("getCount").invoke(values.get(0)), is(3));
+
+    final StringWriter buf = new StringWriter();
+    try (CsvWriter w = new CsvWriter(buf)) {
+      mapper.write(w, values);
+    }
+    assertThat(buf.toString(), is("\"count\",\"name\"\n3,\"x\"\n"));
+  }
+
+  @Test
+  public void givenBean_whenReadWithReorderedAndExtraColumns_thenMapsByName() throws IOException {
+    List<Account> accounts;
+    try (CsvReader r = new CsvReader(new StringReader(
+        "status,extra,customer_name,id,opened,balance\n"
+            + "ACTIVE,x,\"Alice\",1,2024-01-02,10.5\n" + "CLOSED,y,,2,,\n"))) {
+      accounts = CsvMapper.of(Account.class).read(r).collect(toList());
+    }
+
+    assertThat(accounts.size(), is(2));
+    assertThat(accounts.get(0).getId(), is(1L));
+    assertThat(accounts.get(0).getName(), is("Alice"));
+    assertThat(accounts.get(0).getBalance(), is(10.5));
+    assertThat(accounts.get(0).getStatus(), is(Status.ACTIVE));
+    assertThat(accounts.get(0).getOpened(), is(LocalDate.of(2024, 1, 2)));
+    assertThat(accounts.get(1).getId(), is(2L));
+    assertThat(accounts.get(1).getName(), is(""));
+    assertThat(accounts.get(1).getBalance(), is(nullValue()));
+    assertThat(accounts.get(1).getOpened(), is(nullValue()));
+  }
+
+  @Test
+  public void givenConstructor_whenRead_thenMapsParametersByName() throws IOException {
+    List<Point> points;
+    try (CsvReader r = new CsvReader(new StringReader("label,y,x\norigin,0,0\n,2,\n"))) {
+      points = CsvMapper.of(Point.class).read(r).collect(toList());
+    }
+
+    assertThat(points.size(), is(2));
+    assertThat(points.get(0).getLabel(), is("origin"));
+    assertThat(points.get(1).getX(), is(0));
+    assertThat(points.get(1).getY(), is(2));
+    assertThat(points.get(1).getLabel(), is(""));
+  }
+
+  @Test(expected = MissingColumnException.class)
+  public void givenConstructor_whenColumnMissing_thenThrow() throws IOException {
+    try (CsvReader r = new CsvReader(new StringReader("x,label\n1,a\n"))) {
+      CsvMapper.of(Point.class).read(r);
+    }
+  }
+
+  @Test
+  public void givenBeans_whenWrittenAndRead_thenRoundTrip() throws IOException {
+    Account a = new Account();
+    a.setId(7L);
+    a.setName("Bob, Jr.");
+    a.setBalance(-1.25);
+    a.setStatus(Status.CLOSED);
+
+    StringWriter buf = new StringWriter();
+    try (CsvWriter w = new CsvWriter(buf)) {
+      CsvMapper.of(Account.class).write(w, asList(a));
+    }
+
+    assertThat(buf.toString(), is("\"balance\",\"customer_name\",\"id\",\"opened\",\"status\"\n"
+        + "-1.25,\"Bob, Jr.\",7,,\"CLOSED\"\n"));
+
+    List<Account> accounts;
+    try (CsvReader r = new CsvReader(new StringReader(buf.toString()))) {
+      accounts = CsvMapper.of(Account.class).read(r).collect(toList());
+    }
+
+    assertThat(accounts.size(), is(1));
+    assertThat(accounts.get(0).getId(), is(7L));
+    assertThat(accounts.get(0).getName(), is("Bob, Jr."));
+    assertThat(accounts.get(0).getBalance(), is(-1.25));
+    assertThat(accounts.get(0).getStatus(), is(Status.CLOSED));
+    assertThat(accounts.get(0).getOpened(), is(nullValue()));
+  }
+}
@@ -0,0 +1,57 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.read;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import org.junit.Test;
+
+public class ByteScannerTest {
+  @Test
+  public void givenRandomBytes_whenScan_thenFindsSameIndexAsNaiveScan() {
+    final byte[] targets = {',', '"', '\r', (byte) 0x80};
+    final ByteScanner scanner = new ByteScanner(targets[0], targets[1], targets[2], targets[3]);
+
+    final Random rand = new Random(1L);
+    for (ByteOrder order : new ByteOrder[] {ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+      for (int i = 0; i < 1000; i++) {
+        final byte[] data = new byte[rand.nextInt(40)];
+        for (int j = 0; j < data.length; j++) {
+          // Mostly uninteresting bytes, including near misses of the targets.
+          data[j] = rand.nextInt(16) == 0 ? targets[rand.nextInt(targets.length)]
+              : (byte) rand.nextInt(256);
+        }
+        final ByteBuffer buf = ByteBuffer.wrap(data).order(order);
+
+        final int from = data.length == 0 ? 0 : rand.nextInt(data.length);
+        int expected = from;
+        while (expected < data.length && data[expected] != targets[0]
+            && data[expected] != targets[1] && data[expected] != targets[2]
+            && data[expected] != targets[3])
+          expected = expected + 1;
+
+        assertThat(scanner.scan(buf, from, data.length), is(expected));
+      }
+    }
+  }
+}
@@ -0,0 +1,125 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.read;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import com.sigpwned.csv4j.CsvFormat;
+import com.sigpwned.csv4j.CsvRecord;
+import com.sigpwned.csv4j.util.Boms;
+import com.sigpwned.csv4j.util.CsvFormats;
+
+public class CsvIndexTest {
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void givenIndex_whenSeekToRecord_thenReadsSameRecordsAsSequentialRead()
+      throws IOException {
+    final StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 40; i++) {
+      if (i % 3 == 0)
+        text.append(i).append(",\"multi\nline ").append(i).append("\"\r\n");
+      else
+        text.append(i).append(",\"a, \"\"b\"\"\"\n\n");
+    }
+
+    final List<CsvRecord> expected;
+    try (CsvReader r = new CsvReader(CsvFormats.CSV, new StringReader(text.toString()))) {
+      expected = r.stream().collect(toList());
+    }
+
+    final Path file = temp.newFile().toPath();
+    Files.write(file, Boms.UTF_8);
+    Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8),
+        StandardOpenOption.APPEND);
+
+    final Path sidecar = temp.newFile().toPath();
+    CsvIndex.build(CsvFormats.CSV, file, 7).write(sidecar);
+    final CsvIndex index = CsvIndex.read(sidecar);
+
+    assertThat(index.getRecordCount(), is(40L));
+    assertThat(index.entries(), is(6));
+
+    try (Utf8CsvReader r = new Utf8CsvReader(CsvFormats.CSV, file, index)) {
+      for (long n : new long[] {0L, 39L, 7L, 13L, 14L, 20L, 1L, 35L}) {
+        r.seekToRecord(n);
+        assertThat(r.readNext(), is(expected.get((int) n)));
+        if (n + 1 < expected.size())
+          assertThat(r.readNext(), is(expected.get((int) n + 1)));
+      }
+
+      r.seekToRecord(40L);
+      assertThat(r.readNext(), is(nullValue()));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void givenChangedFile_whenOpenWithIndex_thenThrows() throws IOException {
+    final Path file = temp.newFile().toPath();
+    Files.write(file, "a\nb\n".getBytes(StandardCharsets.UTF_8));
+    final CsvIndex index = CsvIndex.build(file);
+
+    Files.write(file, "a\nb\nc\n".getBytes(StandardCharsets.UTF_8));
+    new Utf8CsvReader(CsvFormats.CSV, file, index).close();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void givenOtherFormat_whenOpenWithIndex_thenThrows() throws IOException {
+    final Path file = temp.newFile().toPath();
+    Files.write(file, "a;b\n\"c;d\"\n".getBytes(StandardCharsets.UTF_8));
+    final Path sidecar = temp.newFile().toPath();
+    CsvIndex.build(CsvFormat.of('"', '"', ';'), file, 1).write(sidecar);
+
+    new Utf8CsvReader(CsvFormats.CSV, file, CsvIndex.read(sidecar)).close();
+  }
+
+  @Test
+  public void givenTrailingBytes_whenReadIndex_thenStreamIsLeftAfterIndex() throws IOException {
+    final Path file = temp.newFile().toPath();
+    Files.write(file, "a\nb\nc\n".getBytes(StandardCharsets.UTF_8));
+    final CsvIndex index = CsvIndex.build(CsvFormat.of('\'', '\\', '\t'), file, 2);
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    index.write(out);
+    out.write(42);
+
+    final ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+    final CsvIndex observed = CsvIndex.read(in);
+    assertThat(in.read(), is(42));
+    assertThat(observed.getFormat(), is(CsvFormat.of('\'', '\\', '\t')));
+    assertThat(observed.getRecordCount(), is(3L));
+    assertThat(observed.entries(), is(2));
+  }
+}
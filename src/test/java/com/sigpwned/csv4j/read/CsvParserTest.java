@@ -24,9 +24,15 @@ import static org.hamcrest.Matchers.is;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PushbackReader;
+import java.io.StringReader;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import org.junit.Test;
+import com.sigpwned.csv4j.CsvField;
+import com.sigpwned.csv4j.CsvFormat;
 import com.sigpwned.csv4j.CsvRecord;
 import com.sigpwned.csv4j.util.CsvFormats;
 
@@ -71,4 +77,85 @@ public class CsvParserTest {
 
     assertThat(problem.getLinenum(), is(1));
   }
+
+  @Test
+  public void givenTinyBuffers_whenParse_thenFieldsAndLineNumbersSurviveWindowBoundaries()
+      throws IOException {
+    final String text = "alpha,\"br\"\"avo\",charlie\r\n\"multi\nline\r\nfield\",,x\n\n\"\"\n";
+
+    final List<CsvRecord> expected = Arrays.asList(
+        CsvRecord.of(new CsvField(false, "alpha"), new CsvField(true, "br\"avo"),
+            new CsvField(false, "charlie")),
+        CsvRecord.of(new CsvField(true, "multi\nline\r\nfield"), new CsvField(false, ""),
+            new CsvField(false, "x")),
+        CsvRecord.of(new CsvField(true, "")));
+
+    CsvParser parser = new CsvParser(CsvFormats.CSV);
+    for (int size = 1; size <= text.length() + 1; size++) {
+      List<CsvRecord> records = new ArrayList<>();
+      List<Integer> linenums = new ArrayList<>();
+      try (LineCountingCharStream in =
+          new LineCountingCharStream(new StringReader(text), size)) {
+        while (in.peek() != -1) {
+          linenums.add(in.linenum());
+          records.add(parser.parseRecord(in));
+        }
+        assertThat(in.linenum(), is(6));
+      }
+      assertThat(records, is(expected));
+      assertThat(linenums, is(Arrays.asList(0, 1, 5)));
+    }
+  }
+
+  @Test
+  public void givenBackslashEscape_whenParse_thenOnlyEscapedQuotesAreUnescaped()
+      throws IOException {
+    CsvParser parser = new CsvParser(CsvFormat.of('"', '\\', ','));
+
+    try (LineCountingCharStream in =
+        new LineCountingCharStream(new StringReader("\"a\\\"b\\c\",d"), 2)) {
+      assertThat(parser.parseRecord(in),
+          is(CsvRecord.of(new CsvField(true, "a\"b\\c"), new CsvField(false, "d"))));
+    }
+  }
+
+  @Test
+  public void givenHandler_whenParse_thenReceivesEventsForEachRecord() throws IOException {
+    final List<String> events = new ArrayList<>();
+
+    new CsvParser(CsvFormats.CSV).parse(new StringReader("a,\"b\"\"c\"\n\"d\ne\",\n"),
+        new CsvHandler() {
+          @Override
+          public void startRecord(int linenum) {
+            events.add("start " + linenum);
+          }
+
+          @Override
+          public void field(char[] buf, int off, int len, boolean quoted) {
+            events.add((quoted ? "quoted " : "unquoted ") + new String(buf, off, len));
+          }
+
+          @Override
+          public void endRecord() {
+            events.add("end");
+          }
+        });
+
+    assertThat(events, is(Arrays.asList("start 0", "unquoted a", "quoted b\"c", "end", "start 1",
+        "quoted d\ne", "unquoted ", "end")));
+  }
+
+  @Test
+  public void givenProjection_whenParseRecord_thenReturnsOnlySelectedColumns() throws IOException {
+    final CsvParser parser = new CsvParser(CsvFormats.CSV);
+    final LineCountingCharStream in =
+        new LineCountingCharStream(new StringReader("a,\"b,\n\"\"b\",c,d\ne\n"));
+    final CsvProjection projection = CsvProjection.ofIndexes(2, 0);
+
+    assertThat(parser.parseRecord(in, projection),
+        is(CsvRecord.of(new CsvField(false, "c"), new CsvField(false, "a"))));
+    assertThat(parser.parseRecord(in, projection),
+        is(CsvRecord.of(new CsvField(false, ""), new CsvField(false, "e"))));
+    assertThat(in.peek(), is(-1));
+  }
 }
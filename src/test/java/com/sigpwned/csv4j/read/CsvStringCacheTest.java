@@ -0,0 +1,74 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.read;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+import com.sigpwned.csv4j.CsvRecord;
+import com.sigpwned.csv4j.util.CsvFormats;
+
+public class CsvStringCacheTest {
+  @Test
+  public void givenRepeatedValues_whenParsed_thenTextIsShared() throws IOException {
+    final String text = "US,1,\"é\"\nUS,2,\"é\"\n";
+
+    final CsvParser parser = new CsvParser(CsvFormats.CSV, new CsvStringCache());
+    final LineCountingCharStream chars = new LineCountingCharStream(new StringReader(text));
+    final CsvRecord a = parser.parseRecord(chars);
+    final CsvRecord b = parser.parseRecord(chars);
+
+    assertThat(b.getFields().get(0).getText(), sameInstance(a.getFields().get(0).getText()));
+    assertThat(b.getFields().get(1).getText(), is("2"));
+
+    final Utf8CsvParser utf8 = new Utf8CsvParser(CsvFormats.CSV, new CsvStringCache());
+    final LineCountingByteStream bytes =
+        new LineCountingByteStream(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+    final CsvRecord c = utf8.parseRecord(bytes);
+    final CsvRecord d = utf8.parseRecord(bytes);
+
+    assertThat(d.getFields().get(0).getText(), sameInstance(c.getFields().get(0).getText()));
+    assertThat(d.getFields().get(2).getText(), is("é"));
+  }
+
+  @Test
+  public void givenHighCardinalityColumn_whenSampled_thenColumnIsDisabled() {
+    final CsvStringCache cache = new CsvStringCache();
+    for (int i = 0; i < CsvStringCache.SAMPLE_SIZE; i++) {
+      final char[] low = (i % 2 == 0 ? "yes" : "no").toCharArray();
+      final char[] high = Integer.toString(i).toCharArray();
+      cache.get(0, low, 0, low.length);
+      cache.get(1, high, 0, high.length);
+    }
+
+    assertThat(cache.isEnabled(0), is(true));
+    assertThat(cache.isEnabled(1), is(false));
+
+    final char[] value = "12".toCharArray();
+    assertThat(cache.get(1, value, 0, 2), not(sameInstance(cache.get(1, value, 0, 2))));
+    assertThat(cache.get(1, value, 0, 2), is("12"));
+  }
+}
@@ -0,0 +1,124 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.read;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import com.sigpwned.csv4j.CsvFormat;
+import com.sigpwned.csv4j.CsvRecord;
+import com.sigpwned.csv4j.util.CsvFormats;
+
+public class ParallelCsvReaderTest {
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void givenQuotedNewlines_whenReadInParallel_thenSameRecordsInSameOrder()
+      throws IOException {
+    assertParallelMatchesSequential(CsvFormats.CSV, generate(new Random(1L), '"', 200));
+  }
+
+  @Test
+  public void givenBackslashEscapes_whenReadInParallel_thenSameRecordsInSameOrder()
+      throws IOException {
+    assertParallelMatchesSequential(CsvFormat.of('"', '\\', ','),
+        generate(new Random(2L), '\\', 200));
+  }
+
+  @Test
+  public void givenMalformedRecord_whenReadInParallel_thenLineNumberIsRelativeToFile()
+      throws IOException {
+    final Path file = temp.newFile().toPath();
+    Files.write(file,
+        "a,\"b\nc\"\r\nd,e\n\"f\"g,h\n".getBytes(StandardCharsets.UTF_8));
+
+    MalformedRecordException problem = null;
+    try (ParallelCsvReader r =
+        new ParallelCsvReader(CsvFormats.CSV, file, ForkJoinPool.commonPool(), 3L)) {
+      r.stream().collect(toList());
+    } catch (UncheckedIOException e) {
+      problem = (MalformedRecordException) e.getCause();
+    }
+
+    assertThat(problem.getLinenum(), is(3));
+  }
+
+  private void assertParallelMatchesSequential(CsvFormat format, String text) throws IOException {
+    final List<CsvRecord> expected;
+    try (CsvReader r = new CsvReader(format, new StringReader(text))) {
+      expected = r.stream().collect(toList());
+    }
+
+    final Path file = temp.newFile().toPath();
+    Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+
+    for (long chunkSize : new long[] {5L, 13L, 64L, 1000L, 1L << 20}) {
+      final List<CsvRecord> observed;
+      try (ParallelCsvReader r =
+          new ParallelCsvReader(format, file, ForkJoinPool.commonPool(), chunkSize)) {
+        observed = r.stream().collect(toList());
+      }
+      assertThat(observed, is(expected));
+    }
+  }
+
+  private static String generate(Random rand, char escape, int records) {
+    final String[] newlines = {"\n", "\r\n", "\r", "\n\r", "\n\n"};
+    final String[] texts =
+        {"", "a", "hello world", "x,y", "two\nlines", "\r\n", "é", "\"quoted\"", "c:\\"};
+
+    final StringBuilder result = new StringBuilder();
+    for (int i = 0; i < records; i++) {
+      final int fields = 1 + rand.nextInt(4);
+      for (int j = 0; j < fields; j++) {
+        if (j > 0)
+          result.append(',');
+        final String text = texts[rand.nextInt(texts.length)];
+        if (rand.nextBoolean() || text.matches("(?s).*[,\"\r\n].*")) {
+          result.append('"');
+          for (char ch : text.toCharArray()) {
+            if (ch == '"' || ch == escape)
+              result.append(escape);
+            result.append(ch);
+          }
+          result.append('"');
+        } else {
+          result.append(text);
+        }
+      }
+      result.append(newlines[rand.nextInt(newlines.length)]);
+    }
+
+    return result.toString();
+  }
+}
@@ -0,0 +1,180 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.read;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.Test;
+import com.sigpwned.csv4j.CsvRecord;
+import com.sigpwned.csv4j.util.CsvFormats;
+
+public class ReadAheadReaderTest {
+  @Test
+  public void givenSmallChunks_whenParsed_thenSameRecordsAsDirect() throws IOException {
+    final StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 5000; i++)
+      text.append(i).append(",\"é ").append(i).append("\nx\",").append(i * 3).append("\r\n");
+
+    final List<CsvRecord> expected;
+    try (CsvReader r = new CsvReader(CsvFormats.CSV, new StringReader(text.toString()))) {
+      expected = r.stream().collect(toList());
+    }
+
+    for (int chunkSize : new int[] {1, 7, 4096}) {
+      final List<CsvRecord> observed;
+      try (CsvReader r = new CsvReader(CsvFormats.CSV,
+          new ReadAheadReader(new StringReader(text.toString()), chunkSize, 3))) {
+        observed = r.stream().collect(toList());
+      }
+      assertThat(observed, is(expected));
+    }
+
+    final List<CsvRecord> decoded;
+    try (CsvReader r = new CsvReader(CsvFormats.CSV, new ReadAheadReader(
+        new ByteArrayInputStream(text.toString().getBytes(StandardCharsets.UTF_8)),
+        StandardCharsets.UTF_8))) {
+      decoded = r.stream().collect(toList());
+    }
+    assertThat(decoded, is(expected));
+  }
+
+  @Test
+  public void givenFailingStream_whenRead_thenCharactersBeforeFailureThenThrow()
+      throws IOException {
+    final Reader failing = new Reader() {
+      private boolean done;
+
+      @Override
+      public int read(char[] cbuf, int off, int len) throws IOException {
+        if (done)
+          throw new IOException("boom");
+        done = true;
+        cbuf[off] = 'a';
+        return 1;
+      }
+
+      @Override
+      public void close() {}
+    };
+
+    IOException problem = null;
+    final StringBuilder observed = new StringBuilder();
+    try (ReadAheadReader r = new ReadAheadReader(failing, 16, 2)) {
+      for (int ch = r.read(); ch != -1; ch = r.read())
+        observed.append((char) ch);
+    } catch (IOException e) {
+      problem = e;
+    }
+
+    assertThat(observed.toString(), is("a"));
+    assertThat(problem.getCause().getMessage(), is("boom"));
+  }
+
+  @Test(timeout = 10000L)
+  public void givenUnreadInput_whenClosed_thenBackgroundThreadStops() throws IOException {
+    final StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 100000; i++)
+      text.append("a,b,c\n");
+
+    try (ReadAheadReader r = new ReadAheadReader(new StringReader(text.toString()), 64, 2)) {
+      assertThat(r.read(), is((int) 'a'));
+    }
+  }
+
+  @Test(timeout = 10000L)
+  public void givenStalledSocket_whenRead_thenArrivedCharactersAreAvailable() throws IOException {
+    try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        Socket client = new Socket(server.getInetAddress(), server.getLocalPort());
+        Socket peer = server.accept()) {
+      peer.getOutputStream().write("a,b\n1,2\n".getBytes(StandardCharsets.UTF_8));
+      peer.getOutputStream().flush();
+
+      try (ReadAheadReader r =
+          new ReadAheadReader(client.getInputStream(), StandardCharsets.UTF_8)) {
+        final StringBuilder observed = new StringBuilder();
+        final char[] buf = new char[64];
+        while (observed.length() < 8)
+          observed.append(buf, 0, r.read(buf, 0, buf.length));
+        assertThat(observed.toString(), is("a,b\n1,2\n"));
+
+        peer.shutdownOutput();
+        assertThat(r.read(), is(-1));
+      }
+    }
+  }
+
+  @Test(timeout = 10000L)
+  public void givenStalledSocket_whenClosed_thenCloseReturnsAndReadsThrow() throws IOException {
+    try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        Socket client = new Socket(server.getInetAddress(), server.getLocalPort());
+        Socket peer = server.accept()) {
+      peer.getOutputStream().write("a,b\n".getBytes(StandardCharsets.UTF_8));
+      peer.getOutputStream().flush();
+
+      final ReadAheadReader r =
+          new ReadAheadReader(client.getInputStream(), StandardCharsets.UTF_8);
+      assertThat(r.read(), is((int) 'a'));
+      r.close();
+
+      IOException problem = null;
+      try {
+        r.read();
+      } catch (IOException e) {
+        problem = e;
+      }
+      assertThat(problem.getMessage(), is("Stream closed"));
+    }
+  }
+
+  @Test(timeout = 10000L)
+  public void givenStalledSocketReader_whenClosed_thenCloseReturnsAndReadsThrow()
+      throws IOException {
+    try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        Socket client = new Socket(server.getInetAddress(), server.getLocalPort());
+        Socket peer = server.accept()) {
+      peer.getOutputStream().write("a,b\n".getBytes(StandardCharsets.UTF_8));
+      peer.getOutputStream().flush();
+
+      final ReadAheadReader r = new ReadAheadReader(
+          new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+      assertThat(r.read(), is((int) 'a'));
+      r.close();
+
+      IOException problem = null;
+      try {
+        r.read();
+      } catch (IOException e) {
+        problem = e;
+      }
+      assertThat(problem.getMessage(), is("Stream closed"));
+    }
+  }
+}
@@ -0,0 +1,180 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.read;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import com.sigpwned.csv4j.CsvField;
+import com.sigpwned.csv4j.CsvRecord;
+import com.sigpwned.csv4j.util.Boms;
+import com.sigpwned.csv4j.util.CsvFormats;
+
+public class Utf8CsvReaderTest {
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private static final String TEXT =
+      "café,\"naïve \"\"quoted\"\"\",日本語\r\n\"line\none\",,😀\n\n"
+          + "last,\"\"";
+
+  @Test
+  public void givenUtf8Bytes_whenReadWithTinyBuffers_thenSameRecordsAsCharacterParser()
+      throws IOException {
+    final List<CsvRecord> expected;
+    try (CsvReader r = new CsvReader(CsvFormats.CSV, new StringReader(TEXT))) {
+      expected = r.stream().collect(toList());
+    }
+
+    final byte[] bytes = TEXT.getBytes(StandardCharsets.UTF_8);
+    for (int size = 1; size <= bytes.length + 1; size++) {
+      final List<CsvRecord> observed = new ArrayList<>();
+      try (Utf8CsvReader r = new Utf8CsvReader(new Utf8CsvParser(CsvFormats.CSV),
+          new LineCountingByteStream(new ByteArrayInputStream(bytes), size))) {
+        for (CsvRecord record = r.readNext(); record != null; record = r.readNext())
+          observed.add(record);
+      }
+      assertThat(observed, is(expected));
+    }
+  }
+
+  @Test
+  public void givenUtf8Bom_whenRead_thenBomIsDiscarded() throws IOException {
+    final byte[] bytes = concat(Boms.UTF_8, "a,b\n".getBytes(StandardCharsets.UTF_8));
+
+    final List<CsvRecord> observed;
+    try (Utf8CsvReader r = new Utf8CsvReader(new ByteArrayInputStream(bytes))) {
+      observed = r.stream().collect(toList());
+    }
+
+    assertThat(observed,
+        is(Arrays.asList(CsvRecord.of(new CsvField(false, "a"), new CsvField(false, "b")))));
+  }
+
+  @Test
+  public void givenUtf16Bom_whenRead_thenFallsBackToDecoding() throws IOException {
+    final byte[] bytes = concat(Boms.UTF_16LE, TEXT.getBytes(StandardCharsets.UTF_16LE));
+
+    final List<CsvRecord> expected;
+    try (CsvReader r = new CsvReader(CsvFormats.CSV, new StringReader(TEXT))) {
+      expected = r.stream().collect(toList());
+    }
+
+    final List<CsvRecord> observed;
+    try (Utf8CsvReader r = new Utf8CsvReader(CsvFormats.CSV,
+        Channels.newChannel(new ByteArrayInputStream(bytes)))) {
+      observed = r.stream().collect(toList());
+    }
+
+    assertThat(observed, is(expected));
+  }
+
+  @Test
+  public void givenFile_whenMappedWithTinyWindows_thenSameRecordsAsCharacterParser()
+      throws IOException {
+    final List<CsvRecord> expected;
+    try (CsvReader r = new CsvReader(CsvFormats.CSV, new StringReader(TEXT))) {
+      expected = r.stream().collect(toList());
+    }
+
+    final Path file = temp.newFile().toPath();
+    Files.write(file, TEXT.getBytes(StandardCharsets.UTF_8));
+
+    for (int size = 1; size <= Files.size(file) + 1; size++) {
+      final List<CsvRecord> observed;
+      FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+      try (Utf8CsvReader r = new Utf8CsvReader(new Utf8CsvParser(CsvFormats.CSV),
+          LineCountingByteStream.map(channel, 0L, channel.size(), size))) {
+        observed = r.stream().collect(toList());
+      }
+      assertThat(observed, is(expected));
+    }
+  }
+
+  @Test
+  public void givenFileWithUtf8Bom_whenMapped_thenBomIsDiscarded() throws IOException {
+    final Path file = temp.newFile().toPath();
+    Files.write(file, concat(Boms.UTF_8, "a,b\n".getBytes(StandardCharsets.UTF_8)));
+
+    final List<CsvRecord> observed;
+    try (Utf8CsvReader r = new Utf8CsvReader(file)) {
+      observed = r.stream().collect(toList());
+    }
+
+    assertThat(observed,
+        is(Arrays.asList(CsvRecord.of(new CsvField(false, "a"), new CsvField(false, "b")))));
+  }
+
+  @Test(expected = MalformedRecordException.class)
+  public void givenMalformedRecord_whenRead_thenMalformedRecordException() throws IOException {
+    try (Utf8CsvReader r = new Utf8CsvReader(
+        new ByteArrayInputStream("\"a\"b\n".getBytes(StandardCharsets.UTF_8)))) {
+      r.readNext();
+    }
+  }
+
+  @Test
+  public void givenLazyLinenums_whenParse_thenSameLineNumbersAsEager() throws IOException {
+    final String text = "a,\"b\r\n\n\rc\"\n\r\n\"d\n\re\"\r\r\nf\n\"g\nh\"i\n";
+    final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    final Utf8CsvParser parser = new Utf8CsvParser(CsvFormats.CSV);
+
+    for (int size = 1; size <= bytes.length + 1; size++) {
+      final List<Integer> observed = new ArrayList<>();
+      for (boolean lazy : new boolean[] {false, true}) {
+        final LineCountingByteStream in =
+            new LineCountingByteStream(new ByteArrayInputStream(bytes), size);
+        in.setLazyLinenums(lazy);
+        try {
+          while (in.peek() != -1) {
+            parser.parseRecord(in);
+            observed.add(in.linenum());
+          }
+        } catch (MalformedRecordException e) {
+          observed.add(e.getLinenum());
+        }
+      }
+      assertThat(observed, is(Arrays.asList(4, 7, 8, 8, 4, 7, 8, 8)));
+    }
+  }
+
+  private static byte[] concat(byte[] a, byte[] b) throws IOException {
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    result.write(a);
+    result.write(b);
+    return result.toByteArray();
+  }
+}
@@ -0,0 +1,86 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+public class CsvNumbersTest {
+  @Test
+  public void givenDecimalText_whenParseDouble_thenSameAsDoubleParseDouble() {
+    final Random rand = new Random(1L);
+    final List<String> texts = new ArrayList<>(Arrays.asList("0", "-0", "0.0", "-0.0e5", "1e22",
+        "1e23", "9007199254740993", "123456789012345", "1234567890123456", ".5", "5.", "+3.25",
+        "0.000001", "1e-22", "2.2250738585072014E-308", "4.9e-324", "1.7976931348623157e308",
+        "NaN", "-Infinity", "0x1p3", "1.5d", " 2 ", "00000000000000000000012.5"));
+    for (int i = 0; i < 10000; i++) {
+      texts.add(Double.toString(Double.longBitsToDouble(rand.nextLong())));
+      texts.add(rand.nextInt(1000000) + "." + rand.nextInt(1000) + "e" + (rand.nextInt(50) - 25));
+      texts.add(Integer.toString(rand.nextInt()) + "." + Math.abs(rand.nextInt()));
+    }
+
+    for (String text : texts) {
+      final char[] buf = ("[" + text + "]").toCharArray();
+      assertThat(text,
+          Double.doubleToLongBits(CsvNumbers.parseDouble(buf, 1, text.length())),
+          is(Double.doubleToLongBits(Double.parseDouble(text))));
+    }
+  }
+
+  @Test
+  public void givenIntegerText_whenParseLong_thenSameAsLongParseLong() {
+    for (String text : new String[] {"0", "-0", "+7", "-42", "9223372036854775807",
+        "-9223372036854775808", "00012"}) {
+      assertThat(CsvNumbers.isLong(text.toCharArray(), 0, text.length()), is(true));
+      assertThat(CsvNumbers.parseLong(text.toCharArray(), 0, text.length()),
+          is(Long.parseLong(text)));
+    }
+    for (String text : new String[] {"", "-", "+", "1a", "9223372036854775808",
+        "-9223372036854775809", "1.0"}) {
+      assertThat(text, CsvNumbers.isLong(text.toCharArray(), 0, text.length()), is(false));
+      try {
+        CsvNumbers.parseLong(text.toCharArray(), 0, text.length());
+        throw new AssertionError(text);
+      } catch (NumberFormatException e) {
+        // Good.
+      }
+    }
+    assertThat(CsvNumbers.parseInt("-2147483648".toCharArray(), 0, 11), is(Integer.MIN_VALUE));
+    assertThat(CsvNumbers.isInt("-2147483648".toCharArray(), 0, 11), is(true));
+    assertThat(CsvNumbers.isInt("2147483648".toCharArray(), 0, 10), is(false));
+  }
+
+  @Test
+  public void givenText_whenIsDecimal_thenOnlyPlainDecimalsAreAccepted() {
+    for (String text : new String[] {"0", "-0.0e5", ".5", "5.", "+3.25", "1E-22", "12"}) {
+      assertThat(text, CsvNumbers.isDecimal(text.toCharArray(), 0, text.length()), is(true));
+      Double.parseDouble(text);
+    }
+    for (String text : new String[] {"", "-", ".", "e5", "1e", "1e+", "NaN", "Infinity", "0x1p3",
+        "1.5d", "2f", " 2 ", "1.2.3", "1e5.5"}) {
+      assertThat(text, CsvNumbers.isDecimal(text.toCharArray(), 0, text.length()), is(false));
+    }
+  }
+}
@@ -0,0 +1,164 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.write;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import com.sigpwned.csv4j.CsvField;
+import com.sigpwned.csv4j.CsvRecord;
+import com.sigpwned.csv4j.util.CsvFormats;
+
+public class AsyncCsvWriterTest {
+  @Test
+  public void givenManyRecords_whenWriteAsync_thenSameOutputAsCsvWriter() throws IOException {
+    final StringWriter expected = new StringWriter();
+    try (CsvWriter w = new CsvWriter(CsvFormats.CSV, expected)) {
+      for (int i = 0; i < 5000; i++)
+        w.writeNext(record(i));
+    }
+
+    final StringWriter observed = new StringWriter();
+    try (AsyncCsvWriter w =
+        new AsyncCsvWriter(new CsvFormatter(CsvFormats.CSV), observed, 100, 2)) {
+      for (int i = 0; i < 5000; i++) {
+        w.writeNext(record(i));
+        if (i == 2500) {
+          w.flush();
+          assertThat(observed.toString(), is(expected.toString().substring(0,
+              observed.toString().length())));
+        }
+      }
+    }
+
+    assertThat(observed.toString(), is(expected.toString()));
+  }
+
+  @Test
+  public void givenRejectedRecord_whenWriteValidRecordAfterIt_thenOnlyValidRecordIsWritten()
+      throws IOException {
+    final StringWriter out = new StringWriter();
+    try (AsyncCsvWriter w = new AsyncCsvWriter(
+        new CsvFormatter(CsvFormats.CSV, QuotePolicy.NEVER), out, 100, 2)) {
+      try {
+        w.writeNext(CsvRecord.of(new CsvField(false, "a"), new CsvField(false, "b,c")));
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+      w.writeNext(CsvRecord.of(new CsvField(false, "d"), new CsvField(false, "e")));
+    }
+
+    assertThat(out.toString(), is("d,e\n"));
+  }
+
+  @Test
+  public void givenStalledOutput_whenWriteWithTimeout_thenReturnsFalseUntilOutputResumes()
+      throws IOException {
+    final CountDownLatch stall = new CountDownLatch(1);
+    final StringWriter observed = new StringWriter();
+    final Writer stalled = new FilterWriter(observed) {
+      @Override
+      public void write(char[] cbuf, int off, int len) throws IOException {
+        try {
+          stall.await();
+        } catch (InterruptedException e) {
+          throw new IOException(e);
+        }
+        super.write(cbuf, off, len);
+      }
+    };
+
+    final StringWriter expected = new StringWriter();
+    try (CsvWriter e = new CsvWriter(CsvFormats.CSV, expected);
+        AsyncCsvWriter w = new AsyncCsvWriter(new CsvFormatter(CsvFormats.CSV), stalled, 1, 2)) {
+      int i = 0;
+      while (w.writeNext(record(i), 10L, TimeUnit.MILLISECONDS)) {
+        e.writeNext(record(i));
+        i = i + 1;
+      }
+
+      // Each record fills a buffer, so we get one record in each of the two buffers.
+      assertThat(i, is(2));
+
+      stall.countDown();
+      w.writeNext(record(i));
+      e.writeNext(record(i));
+    }
+
+    assertThat(observed.toString(), is(expected.toString()));
+  }
+
+  @Test(expected = IOException.class)
+  public void givenFailingOutput_whenClose_thenThrows() throws IOException {
+    final Writer failing = new FilterWriter(new StringWriter()) {
+      @Override
+      public void write(char[] cbuf, int off, int len) throws IOException {
+        throw new IOException("disk full");
+      }
+    };
+
+    try (AsyncCsvWriter w = new AsyncCsvWriter(new CsvFormatter(CsvFormats.CSV), failing, 1, 2)) {
+      w.writeNext(record(0));
+    }
+  }
+
+  @Test(timeout = 10000L)
+  public void givenOutputThrowsError_whenWriteNext_thenThrowsInsteadOfBlocking()
+      throws IOException {
+    final Writer broken = new FilterWriter(new StringWriter()) {
+      @Override
+      public void write(char[] cbuf, int off, int len) throws IOException {
+        throw new StackOverflowError();
+      }
+    };
+
+    final AsyncCsvWriter w = new AsyncCsvWriter(new CsvFormatter(CsvFormats.CSV), broken, 1, 2);
+    IOException problem = null;
+    try {
+      for (int i = 0; i < 1000; i++)
+        w.writeNext(record(i));
+    } catch (IOException e) {
+      problem = e;
+    }
+
+    assertThat(problem.getCause() instanceof StackOverflowError, is(true));
+  }
+
+  @Test(expected = IOException.class)
+  public void givenClosedWriter_whenWriteNext_thenThrows() throws IOException {
+    final StringWriter out = new StringWriter();
+    final AsyncCsvWriter w = new AsyncCsvWriter(new CsvFormatter(CsvFormats.CSV), out, 100, 2);
+    w.writeNext(record(0));
+    w.close();
+    w.close();
+    w.writeNext(record(1));
+  }
+
+  private static CsvRecord record(int i) {
+    return CsvRecord.of(new CsvField(false, Integer.toString(i)),
+        new CsvField(true, "row \"" + i + "\""));
+  }
+}
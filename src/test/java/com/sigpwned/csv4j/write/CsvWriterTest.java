@@ -0,0 +1,294 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.write;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import com.sigpwned.csv4j.CsvField;
+import com.sigpwned.csv4j.CsvFormat;
+import com.sigpwned.csv4j.CsvRecord;
+import com.sigpwned.csv4j.read.CsvReader;
+import com.sigpwned.csv4j.read.Utf8CsvReader;
+import com.sigpwned.csv4j.util.CsvFormats;
+
+public class CsvWriterTest {
+  @Test
+  public void givenQuotesInText_whenAppendField_thenEachQuoteIsEscaped() throws IOException {
+    final CsvFormatter formatter = new CsvFormatter(CsvFormat.of('"', '\\', ','));
+
+    final StringBuilder out = new StringBuilder();
+    formatter.appendField(new CsvField(true, "\"a\"\"b\""), out);
+    out.append(',');
+    formatter.appendField(new CsvField(false, "c"), out);
+    out.append(',');
+    formatter.appendField(false, null, out);
+
+    assertThat(out.toString(), is("\"\\\"a\\\"\\\"b\\\"\",c,"));
+  }
+
+  @Test
+  public void givenBackslashEscape_whenWriteAndRead_thenTextRoundTrips() throws IOException {
+    final CsvFormat format = CsvFormat.of('"', '\\', ',');
+    final String[] texts = {"a\\\"b", "c:\\", "\\\\", "\\", "x,y\\", "plain", "12"};
+
+    final List<CsvField> fields = new ArrayList<>();
+    for (String text : texts)
+      fields.add(new CsvField(true, text));
+    final CsvRecord record = CsvRecord.of(fields.toArray(new CsvField[0]));
+
+    for (QuotePolicy policy : new QuotePolicy[] {QuotePolicy.PRESERVE, QuotePolicy.ALL,
+        QuotePolicy.NON_NUMERIC, QuotePolicy.MINIMAL}) {
+      final String text = new CsvFormatter(format, policy).formatRecord(record) + "\n";
+
+      try (CsvReader r = new CsvReader(format, new StringReader(text))) {
+        assertThat(policy.name(), texts(r.readNext()), is(texts));
+      }
+      try (Utf8CsvReader r = new Utf8CsvReader(format,
+          new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)))) {
+        assertThat(policy.name(), texts(r.readNext()), is(texts));
+      }
+    }
+  }
+
+  @Test
+  public void givenLoneEmptyField_whenWriteMinimalAndRead_thenRecordRoundTrips()
+      throws IOException {
+    final CsvFormatter formatter = new CsvFormatter(CsvFormats.CSV, QuotePolicy.MINIMAL);
+    final CsvRecord empty = CsvRecord.of(new CsvField(false, ""));
+
+    assertThat(formatter.formatRecord(empty), is("\"\""));
+    assertThat(
+        formatter.formatRecord(CsvRecord.of(new CsvField(false, ""), new CsvField(false, ""))),
+        is(","));
+
+    final StringWriter out = new StringWriter();
+    try (CsvWriter w = new CsvWriter(formatter, out)) {
+      w.writeNext(CsvRecord.of(new CsvField(false, "a")));
+      w.writeNext(empty);
+      w.writeField(false, "").endRecord();
+      w.writeField(false, "b").endRecord();
+    }
+    assertThat(out.toString(), is("a\n\"\"\n\"\"\nb\n"));
+
+    final List<String[]> observed = new ArrayList<>();
+    try (CsvReader r = new CsvReader(CsvFormats.CSV, new StringReader(out.toString()))) {
+      for (CsvRecord record = r.readNext(); record != null; record = r.readNext())
+        observed.add(texts(record));
+    }
+    assertThat(observed.size(), is(4));
+    assertThat(observed.get(1), is(new String[] {""}));
+    assertThat(observed.get(2), is(new String[] {""}));
+  }
+
+  @Test
+  public void givenLoneEmptyField_whenWriteNever_thenRejectedAndNextRecordIsWritten()
+      throws IOException {
+    final CsvFormatter formatter = new CsvFormatter(CsvFormats.CSV, QuotePolicy.NEVER);
+
+    final StringWriter out = new StringWriter();
+    int rejected = 0;
+    try (CsvWriter w = new CsvWriter(formatter, out)) {
+      try {
+        w.writeNext(CsvRecord.of(new CsvField(false, "")));
+      } catch (IllegalArgumentException e) {
+        rejected = rejected + 1;
+      }
+      try {
+        w.writeField(false, "").endRecord();
+      } catch (IllegalArgumentException e) {
+        rejected = rejected + 1;
+      }
+      w.writeField(false, "a").endRecord();
+    }
+
+    assertThat(rejected, is(2));
+    assertThat(out.toString(), is("a\n"));
+  }
+
+  @Test
+  public void givenManyRecords_whenWriteAndFlush_thenAllRecordsAreWritten() throws IOException {
+    final StringBuilder expected = new StringBuilder();
+    final StringWriter out = new StringWriter();
+    final CsvWriter w = new CsvWriter(CsvFormats.CSV, out);
+    for (int i = 0; i < 10000; i++) {
+      w.writeNext(CsvRecord.of(new CsvField(false, Integer.toString(i)),
+          new CsvField(true, "say \"" + i + "\"")));
+      expected.append(i).append(",\"say \"\"").append(i).append("\"\"\"\n");
+    }
+
+    w.flush();
+    assertThat(out.toString(), is(expected.toString()));
+  }
+
+  @Test
+  public void givenQuotePolicies_whenFormatRecord_thenQuotesAccordingToPolicy() {
+    final CsvRecord record = CsvRecord.of(new CsvField(true, "12.5e3"), new CsvField(false, "a,b"),
+        new CsvField(false, "say \"hi\""), new CsvField(true, "plain"), new CsvField(false, "-7"),
+        new CsvField(false, ""));
+
+    assertThat(new CsvFormatter(CsvFormats.CSV, QuotePolicy.MINIMAL).formatRecord(record),
+        is("12.5e3,\"a,b\",\"say \"\"hi\"\"\",plain,-7,"));
+    assertThat(new CsvFormatter(CsvFormats.CSV, QuotePolicy.ALL).formatRecord(record),
+        is("\"12.5e3\",\"a,b\",\"say \"\"hi\"\"\",\"plain\",\"-7\",\"\""));
+    assertThat(new CsvFormatter(CsvFormats.CSV, QuotePolicy.NON_NUMERIC).formatRecord(record),
+        is("12.5e3,\"a,b\",\"say \"\"hi\"\"\",\"plain\",-7,\"\""));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void givenSpecialCharacters_whenFormatWithNeverPolicy_thenThrows() {
+    new CsvFormatter(CsvFormats.CSV, QuotePolicy.NEVER).formatField(new CsvField(true, "a\nb"));
+  }
+
+  @Test
+  public void givenRejectedRecord_whenWriteValidRecordAfterIt_thenOnlyValidRecordIsWritten()
+      throws IOException {
+    final CsvFormatter formatter = new CsvFormatter(CsvFormats.CSV, QuotePolicy.NEVER);
+    final CsvRecord rejected = CsvRecord.of(new CsvField(false, "a"), new CsvField(false, "b,c"));
+    final CsvRecord valid = CsvRecord.of(new CsvField(false, "d"), new CsvField(false, "e"));
+
+    final StringBuilder appended = new StringBuilder();
+    try {
+      formatter.appendRecord(rejected, appended);
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    assertThat(appended.toString(), is(""));
+
+    final StringWriter out = new StringWriter();
+    try (CsvWriter w = new CsvWriter(formatter, out)) {
+      try {
+        w.writeNext(rejected);
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+      w.writeNext(valid);
+      try {
+        w.writeField(false, "f").writeField(false, "g\nh");
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+      w.writeField(false, "i").writeField(7L).endRecord();
+    }
+
+    assertThat(out.toString(), is("d,e\ni,7\n"));
+  }
+
+  @Test
+  public void givenPrimitiveFields_whenWriteField_thenWritesSameTextAsToString()
+      throws IOException {
+    final StringWriter out = new StringWriter();
+    try (CsvWriter w = new CsvWriter(CsvFormats.CSV, out)) {
+      w.writeField(0L).writeField(-42L).writeField(Long.MIN_VALUE).writeField(Long.MAX_VALUE)
+          .writeField(true).writeField(false, "x").endRecord();
+      w.writeField(LocalDate.of(2024, 1, 31)).writeField(LocalDate.of(12345, 6, 7))
+          .writeField(Instant.ofEpochSecond(0L), DateTimeFormatter.ISO_INSTANT).endRecord();
+    }
+
+    assertThat(out.toString(), is("0,-42,-9223372036854775808,9223372036854775807,true,x\n"
+        + "2024-01-31,+12345-06-07,1970-01-01T00:00:00Z\n"));
+  }
+
+  @Test
+  public void givenNonFiniteDoubles_whenWriteFieldNonNumeric_thenQuotedLikeText()
+      throws IOException {
+    final CsvFormatter formatter = new CsvFormatter(CsvFormats.CSV, QuotePolicy.NON_NUMERIC);
+
+    final StringWriter expected = new StringWriter();
+    try (CsvWriter w = new CsvWriter(formatter, expected)) {
+      w.writeField(false, "1.5").writeField(false, "NaN").writeField(false, "Infinity")
+          .writeField(false, "-Infinity").endRecord();
+    }
+
+    final StringWriter observed = new StringWriter();
+    try (CsvWriter w = new CsvWriter(formatter, observed)) {
+      w.writeField(1.5).writeField(Double.NaN).writeField(Double.POSITIVE_INFINITY)
+          .writeField(Double.NEGATIVE_INFINITY).endRecord();
+    }
+
+    assertThat(observed.toString(), is("1.5,\"NaN\",\"Infinity\",\"-Infinity\"\n"));
+    assertThat(observed.toString(), is(expected.toString()));
+  }
+
+  @Test
+  public void givenDoubles_whenWriteField_thenShortestTextThatRoundTrips() throws IOException {
+    final Random rand = new Random(1L);
+    final double[] values = new double[10000];
+    for (int i = 0; i < values.length; i++) {
+      switch (i % 4) {
+        case 0:
+          values[i] = rand.nextInt(1000000) / 100.0;
+          break;
+        case 1:
+          values[i] = -rand.nextDouble() * Math.pow(10, rand.nextInt(20) - 10);
+          break;
+        case 2:
+          values[i] = Double.longBitsToDouble(rand.nextLong());
+          break;
+        default:
+          values[i] = rand.nextInt(100) / 1000.0;
+          break;
+      }
+    }
+
+    final StringWriter out = new StringWriter();
+    try (CsvWriter w = new CsvWriter(CsvFormats.CSV, out)) {
+      for (double value : values)
+        w.writeField(value).endRecord();
+      w.writeField(0.1).writeField(-0.0).writeField(1.0).writeField(Double.NaN).endRecord();
+    }
+
+    final String[] lines = out.toString().split("\n");
+    for (int i = 0; i < values.length; i++) {
+      assertThat(Double.doubleToLongBits(Double.parseDouble(lines[i])),
+          is(Double.doubleToLongBits(values[i])));
+      assertThat(lines[i].length() <= Double.toString(values[i]).length(), is(true));
+    }
+    assertThat(lines[values.length], is("0.1,-0.0,1.0,NaN"));
+  }
+
+  @Test
+  public void givenNonNumericPolicy_whenWriteField_thenOnlyNumbersAreUnquoted()
+      throws IOException {
+    final StringWriter out = new StringWriter();
+    try (CsvWriter w = new CsvWriter(new CsvFormatter(CsvFormats.CSV, QuotePolicy.NON_NUMERIC),
+        out)) {
+      w.writeField(1L).writeField(2.5).writeField(true).writeField(LocalDate.of(2024, 1, 31))
+          .endRecord();
+    }
+
+    assertThat(out.toString(), is("1,2.5,\"true\",\"2024-01-31\"\n"));
+  }
+
+  private static String[] texts(CsvRecord record) {
+    return record.getFields().stream().map(CsvField::getText).toArray(String[]::new);
+  }
+}
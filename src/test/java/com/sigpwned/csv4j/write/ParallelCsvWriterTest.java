@@ -0,0 +1,91 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.write;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Test;
+import com.sigpwned.csv4j.CsvField;
+import com.sigpwned.csv4j.CsvRecord;
+import com.sigpwned.csv4j.util.CsvFormats;
+
+public class ParallelCsvWriterTest {
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+  @After
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void givenManyRecords_whenWriteInParallel_thenSameOutputAsCsvWriter() throws IOException {
+    final StringWriter expected = new StringWriter();
+    try (CsvWriter w = new CsvWriter(CsvFormats.CSV, expected)) {
+      for (int i = 0; i < 5000; i++)
+        w.writeNext(record(i));
+    }
+
+    for (int batchSize : new int[] {1, 7, 1000, 10000}) {
+      final StringWriter observed = new StringWriter();
+      try (ParallelCsvWriter w = new ParallelCsvWriter(new CsvFormatter(CsvFormats.CSV), observed,
+          executor, batchSize, 3)) {
+        w.writeAll(IntStream.range(0, 5000).mapToObj(ParallelCsvWriterTest::record));
+      }
+      assertThat(observed.toString(), is(expected.toString()));
+    }
+  }
+
+  @Test
+  public void givenRejectedRecord_whenWriteNext_thenOtherRecordsInBatchAreWritten()
+      throws IOException {
+    final StringWriter out = new StringWriter();
+    try (ParallelCsvWriter w = new ParallelCsvWriter(
+        new CsvFormatter(CsvFormats.CSV, QuotePolicy.NEVER), out, executor, 3, 2)) {
+      w.writeNext(plainRecord(0));
+      IllegalArgumentException problem = null;
+      try {
+        w.writeNext(CsvRecord.of(new CsvField(false, "a,b")));
+      } catch (IllegalArgumentException e) {
+        problem = e;
+      }
+      assertThat(problem != null, is(true));
+      w.writeNext(plainRecord(1));
+      w.writeNext(plainRecord(2));
+      w.flush();
+    }
+
+    assertThat(out.toString(), is("0,row 0\n1,row 1\n2,row 2\n"));
+  }
+
+  private static CsvRecord plainRecord(int i) {
+    return CsvRecord.of(new CsvField(false, Integer.toString(i)), new CsvField(false, "row " + i));
+  }
+
+  private static CsvRecord record(int i) {
+    return CsvRecord.of(new CsvField(false, Integer.toString(i)),
+        new CsvField(true, "row \"" + i + "\""));
+  }
+}
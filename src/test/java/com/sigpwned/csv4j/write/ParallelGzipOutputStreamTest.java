@@ -0,0 +1,91 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.write;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import org.junit.After;
+import org.junit.Test;
+import com.sigpwned.csv4j.CsvField;
+import com.sigpwned.csv4j.CsvRecord;
+import com.sigpwned.csv4j.util.CsvFormats;
+
+public class ParallelGzipOutputStreamTest {
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+  @After
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void givenCsvOutput_whenCompressInParallel_thenGzipInputStreamReadsSameBytes()
+      throws IOException {
+    final Random rand = new Random(1L);
+    final ByteArrayOutputStream plain = new ByteArrayOutputStream();
+    try (Utf8CsvWriter w = new Utf8CsvWriter(CsvFormats.CSV, plain)) {
+      for (int i = 0; i < 20000; i++) {
+        w.writeNext(CsvRecord.of(new CsvField(false, Integer.toString(i)),
+            new CsvField(true, Long.toString(rand.nextLong(), 36)), new CsvField(false, "café")));
+      }
+    }
+    final byte[] expected = plain.toByteArray();
+
+    for (int blockSize : new int[] {32 * 1024, 40000, 1 << 20}) {
+      final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+      try (ParallelGzipOutputStream out = new ParallelGzipOutputStream(compressed, executor,
+          Deflater.DEFAULT_COMPRESSION, blockSize, 8)) {
+        // Write in odd-sized pieces, with a flush in the middle for good measure.
+        for (int off = 0; off < expected.length; off = off + 777) {
+          out.write(expected, off, Math.min(777, expected.length - off));
+          if (off == 777 * 100)
+            out.flush();
+        }
+      }
+      assertThat(gunzip(compressed.toByteArray()), is(expected));
+    }
+  }
+
+  @Test
+  public void givenNoData_whenClose_thenEmptyGzip() throws IOException {
+    final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    new ParallelGzipOutputStream(compressed).close();
+    assertThat(gunzip(compressed.toByteArray()), is(new byte[0]));
+  }
+
+  private static byte[] gunzip(byte[] compressed) throws IOException {
+    final ByteArrayOutputStream result = new ByteArrayOutputStream();
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      final byte[] buf = new byte[8192];
+      for (int n = in.read(buf); n != -1; n = in.read(buf))
+        result.write(buf, 0, n);
+    }
+    return result.toByteArray();
+  }
+}
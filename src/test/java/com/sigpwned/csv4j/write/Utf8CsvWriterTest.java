@@ -0,0 +1,86 @@
+/*-
+ * =================================LICENSE_START==================================
+ * csv4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.csv4j.write;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import com.sigpwned.csv4j.CsvField;
+import com.sigpwned.csv4j.CsvRecord;
+import com.sigpwned.csv4j.util.Boms;
+import com.sigpwned.csv4j.util.CsvFormats;
+
+public class Utf8CsvWriterTest {
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private static final List<CsvRecord> RECORDS = Arrays.asList(
+      CsvRecord.of(new CsvField(false, "café"), new CsvField(true, "naïve \"quoted\"")),
+      CsvRecord.of(new CsvField(true, "日本語 😀"), new CsvField(false, "lone \uD83D")),
+      CsvRecord.of(new CsvField(true, "\uDE00 low"), new CsvField(false, "plain ascii text")));
+
+  @Test
+  public void givenTinyBuffers_whenWrite_thenSameBytesAsWriter() throws IOException {
+    final byte[] expected = expected();
+    for (int size = 4; size <= expected.length + 1; size++) {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      try (Utf8CsvWriter w = new Utf8CsvWriter(new CsvFormatter(CsvFormats.CSV),
+          new Utf8OutputBuffer(out, size), false)) {
+        for (CsvRecord record : RECORDS)
+          w.writeNext(record);
+      }
+      assertThat(out.toByteArray(), is(expected));
+    }
+  }
+
+  @Test
+  public void givenChannelAndBom_whenWrite_thenFileStartsWithBom() throws IOException {
+    final Path file = temp.newFile().toPath();
+    try (Utf8CsvWriter w = new Utf8CsvWriter(CsvFormats.CSV,
+        FileChannel.open(file, StandardOpenOption.WRITE), true)) {
+      for (CsvRecord record : RECORDS)
+        w.writeNext(record);
+    }
+
+    final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    expected.write(Boms.UTF_8);
+    expected.write(expected());
+    assertThat(Files.readAllBytes(file), is(expected.toByteArray()));
+  }
+
+  private static byte[] expected() {
+    final CsvFormatter formatter = new CsvFormatter(CsvFormats.CSV);
+    final StringBuilder result = new StringBuilder();
+    for (CsvRecord record : RECORDS)
+      result.append(formatter.formatRecord(record)).append('\n');
+    return result.toString().getBytes(StandardCharsets.UTF_8);
+  }
+}